@@ -22,6 +22,7 @@ public class ArtifactArchiverStep extends Step {
 
     private final String includes;
     private String excludes;
+    private int dedupe;
 
     @DataBoundConstructor
     public ArtifactArchiverStep(String includes) {
@@ -41,6 +42,19 @@ public class ArtifactArchiverStep extends Step {
         this.excludes = Util.fixEmptyAndTrim(excludes);
     }
 
+    public int getDedupe() {
+        return dedupe;
+    }
+
+    /**
+     * @param dedupe number of earlier builds whose identical artifacts may be reused rather than copied again;
+     *     0 to disable
+     */
+    @DataBoundSetter
+    public void setDedupe(int dedupe) {
+        this.dedupe = Math.max(0, dedupe);
+    }
+
     @Override
     public StepExecution start(StepContext context) throws Exception {
         return new ArtifactArchiverStepExecution(this, context);
@@ -1,23 +1,56 @@
 package org.jenkinsci.plugins.workflow.steps;
 
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import hudson.FilePath;
+import hudson.Functions;
 import hudson.Launcher;
 import hudson.Util;
 import hudson.model.Run;
 import hudson.model.TaskListener;
+import hudson.remoting.Pipe;
 import hudson.remoting.VirtualChannel;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
 import java.io.File;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import jenkins.MasterToSlaveFileCallable;
+import jenkins.model.ArtifactManager;
+import jenkins.model.StandardArtifactManager;
 import jenkins.util.BuildListenerAdapter;
+import jenkins.util.SystemProperties;
 
 /**
  * @author Kohsuke Kawaguchi
  */
 public class ArtifactArchiverStepExecution extends SynchronousNonBlockingStepExecution<Void> {
 
+    /**
+     * Maximum number of files passed to {@link ArtifactManager#archive} at once.
+     */
+    @SuppressFBWarnings(value = "MS_SHOULD_BE_FINAL", justification = "Non-final for tests and script console.")
+    static int CHUNK_SIZE =
+            SystemProperties.getInteger(ArtifactArchiverStepExecution.class.getName() + ".chunkSize", 10_000);
+
+    /**
+     * Whether to fall back to Ant's single-threaded {@link org.apache.tools.ant.DirectoryScanner}
+     * rather than {@link ParallelFileScanner}.
+     */
+    private static final boolean USE_DIRECTORY_SCANNER =
+            SystemProperties.getBoolean(ArtifactArchiverStepExecution.class.getName() + ".useDirectoryScanner");
+
     private final transient ArtifactArchiverStep step;
 
     ArtifactArchiverStepExecution(ArtifactArchiverStep step, StepContext context) {
@@ -33,8 +66,41 @@ public class ArtifactArchiverStepExecution extends SynchronousNonBlockingStepExe
         if (listener != null) {
             listener.getLogger().println(Messages.ArtifactArchiverStepExecution_Deprecated());
         }
-        Map<String, String> files = ws.act(new ListFiles(step.getIncludes(), step.getExcludes()));
-        if (files.isEmpty()) {
+        ArtifactManager am = null;
+        Run<?, ?> run = getContext().get(Run.class);
+        File artifactsDir = null;
+        Map<String, ArtifactDigests.Artifact> previous = Collections.emptyMap();
+        if (step.getDedupe() > 0) {
+            am = run.pickArtifactManager();
+            if (am instanceof StandardArtifactManager) {
+                artifactsDir = run.getArtifactsDir();
+                previous = ArtifactDigests.previousArtifacts(run, step.getDedupe());
+            } else {
+                listener.getLogger()
+                        .println("Artifact deduplication is only supported by the built-in artifact storage");
+            }
+        }
+        boolean dedupe = artifactsDir != null;
+        int total;
+        Collector collector;
+        try (ArtifactDigests digests = dedupe ? new ArtifactDigests(run) : null) {
+            collector = new Collector(ws, am, previous, artifactsDir, digests);
+            if (ws.isRemote()) {
+                total = listRemotely(ws, dedupe, collector);
+            } else {
+                // A pipe is only connected when sent over a channel, so scan right here, archiving as files are found.
+                total = new ListFiles(step.getIncludes(), step.getExcludes(), USE_DIRECTORY_SCANNER, dedupe, null)
+                        .list(new File(ws.getRemote()), collector);
+            }
+            collector.flush();
+        }
+        if (dedupe) {
+            listener.getLogger()
+                    .println("Reused " + collector.reused + " of " + total + " artifact(s) ("
+                            + Functions.humanReadableByteSize(collector.reusedBytes)
+                            + ") identical to those of recent builds");
+        }
+        if (total == 0) {
             if (step.getExcludes() != null && !step.getExcludes().equals("")) {
                 listener.getLogger()
                         .println(Messages.ArtifactArchiverStepExecution_NoFilesWithExcludes(
@@ -42,39 +108,217 @@ public class ArtifactArchiverStepExecution extends SynchronousNonBlockingStepExe
             } else {
                 listener.getLogger().println(Messages.ArtifactArchiverStepExecution_NoFiles(step.getIncludes()));
             }
-        } else {
-            getContext()
-                    .get(Run.class)
-                    .pickArtifactManager()
-                    .archive(
-                            ws,
-                            getContext().get(Launcher.class),
-                            new BuildListenerAdapter(getContext().get(TaskListener.class)),
-                            files);
         }
         return null;
     }
 
-    private static final class ListFiles extends MasterToSlaveFileCallable<Map<String, String>> {
+    /**
+     * Lists files on an agent, streaming paths back so as to bound controller memory.
+     */
+    private int listRemotely(FilePath ws, boolean dedupe, Collector collector) throws Exception {
+        Pipe pipe = Pipe.createRemoteToLocal();
+        Future<Integer> count = ws.actAsync(
+                new ListFiles(step.getIncludes(), step.getExcludes(), USE_DIRECTORY_SCANNER, dedupe, pipe));
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(pipe.getIn()))) {
+            while (true) {
+                String f;
+                try {
+                    f = in.readUTF();
+                } catch (EOFException x) {
+                    break;
+                }
+                collector.accept(f, dedupe ? in.readUTF() : null);
+            }
+        } finally {
+            if (!count.isDone()) {
+                count.cancel(true);
+            }
+        }
+        try {
+            return count.get();
+        } catch (ExecutionException x) {
+            throw x.getCause() instanceof Exception ? (Exception) x.getCause() : x;
+        }
+    }
+
+    /**
+     * Archives listed files in chunks, reusing identical artifacts of recent builds where possible.
+     * Not thread-safe.
+     */
+    private final class Collector implements Sink {
+        private final FilePath ws;
+        private @CheckForNull ArtifactManager am;
+        private final Map<String, ArtifactDigests.Artifact> previous;
+        private final @CheckForNull File artifactsDir;
+        private final @CheckForNull ArtifactDigests digests;
+        private final Map<String, String> chunk = new HashMap<>();
+        /** path → checksum of files in {@link #chunk}, recorded once they have been archived */
+        private final Map<String, String> chunkDigests = new HashMap<>();
+        int reused;
+        long reusedBytes;
+
+        Collector(
+                FilePath ws,
+                @CheckForNull ArtifactManager am,
+                Map<String, ArtifactDigests.Artifact> previous,
+                @CheckForNull File artifactsDir,
+                @CheckForNull ArtifactDigests digests) {
+            this.ws = ws;
+            this.am = am;
+            this.previous = previous;
+            this.artifactsDir = artifactsDir;
+            this.digests = digests;
+        }
+
+        @Override
+        public void accept(String f, @CheckForNull String digest) throws IOException, InterruptedException {
+            if (digest != null && digests != null) {
+                ArtifactDigests.checkPath(f);
+                ArtifactDigests.Artifact original = previous.get(digest);
+                long size = original != null ? reuse(original, artifactsDir, f) : -1;
+                if (size >= 0) {
+                    digests.record(f, digest);
+                    reused++;
+                    reusedBytes += size;
+                    return;
+                }
+                chunkDigests.put(f, digest);
+            }
+            chunk.put(f, f);
+            if (chunk.size() >= CHUNK_SIZE) {
+                flush();
+            }
+        }
+
+        void flush() throws IOException, InterruptedException {
+            if (!chunk.isEmpty()) {
+                am = archive(am, ws, chunk);
+                if (digests != null) {
+                    for (Map.Entry<String, String> e : chunkDigests.entrySet()) {
+                        digests.record(e.getKey(), e.getValue());
+                    }
+                }
+                chunk.clear();
+                chunkDigests.clear();
+            }
+        }
+    }
+
+    /**
+     * Archives some files, picking the artifact manager on first use.
+     * {@link ArtifactManager#archive} may be called repeatedly, keeping earlier artifacts.
+     */
+    private ArtifactManager archive(@CheckForNull ArtifactManager am, FilePath ws, Map<String, String> files)
+            throws IOException, InterruptedException {
+        if (am == null) {
+            am = getContext().get(Run.class).pickArtifactManager();
+        }
+        am.archive(
+                ws,
+                getContext().get(Launcher.class),
+                new BuildListenerAdapter(getContext().get(TaskListener.class)),
+                files);
+        return am;
+    }
+
+    /**
+     * Links an artifact of an earlier build into this build's artifacts, or copies it if links are not supported.
+     * @return the size of the file, or -1 if the earlier artifact is gone,
+     *     for example after its build's artifacts were discarded, or may not be used
+     */
+    private static long reuse(ArtifactDigests.Artifact artifact, File artifactsDir, String path) throws IOException {
+        Path original = artifact.locate();
+        if (original == null) {
+            return -1;
+        }
+        Path dir = artifactsDir.toPath().toAbsolutePath().normalize();
+        Path target = dir.resolve(path).normalize();
+        if (!target.startsWith(dir)) {
+            throw new IOException("Refusing to archive " + path + " outside " + dir);
+        }
+        Files.createDirectories(target.getParent());
+        Files.deleteIfExists(target);
+        try {
+            Files.createLink(target, original);
+        } catch (UnsupportedOperationException | IOException x) {
+            Files.copy(original, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return Files.size(target);
+    }
+
+    /**
+     * Receives each matching path, followed by the MD5 checksum of the file if requested.
+     * Called by one thread at a time.
+     */
+    private interface Sink {
+        void accept(String path, @CheckForNull String digest) throws IOException, InterruptedException;
+    }
+
+    /**
+     * Writes each matching path to a pipe, optionally followed by the MD5 checksum of the file,
+     * and returns the number of paths.
+     */
+    private static final class ListFiles extends MasterToSlaveFileCallable<Integer> {
         private static final long serialVersionUID = 1;
         private final String includes, excludes;
+        private final boolean useDirectoryScanner;
+        private final boolean digests;
+        private final @CheckForNull Pipe pipe;
 
-        ListFiles(String includes, String excludes) {
+        /**
+         * @param pipe to write to when called on an agent, or null if {@link #list} is to be called directly
+         */
+        ListFiles(
+                String includes,
+                String excludes,
+                boolean useDirectoryScanner,
+                boolean digests,
+                @CheckForNull Pipe pipe) {
             this.includes = includes;
             this.excludes = excludes;
+            this.useDirectoryScanner = useDirectoryScanner;
+            this.digests = digests;
+            this.pipe = pipe;
         }
 
         @Override
-        public Map<String, String> invoke(File basedir, VirtualChannel channel)
-                throws IOException, InterruptedException {
-            Map<String, String> r = new HashMap<>();
-            for (String f : Util.createFileSet(basedir, includes, excludes)
+        public Integer invoke(File basedir, VirtualChannel channel) throws IOException, InterruptedException {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(pipe.getOut()))) {
+                return list(basedir, (f, digest) -> {
+                    out.writeUTF(f);
+                    if (digest != null) {
+                        out.writeUTF(digest);
+                    }
+                });
+            }
+        }
+
+        /**
+         * Passes each matching path to a sink.
+         * @return the number of paths
+         */
+        int list(File basedir, Sink sink) throws IOException, InterruptedException {
+            if (!useDirectoryScanner) {
+                // checksums are computed on the scanner threads
+                return new ParallelFileScanner(includes, excludes, true).scan(basedir, f -> {
+                    String digest = digests ? Util.getDigestOf(new File(basedir, f)) : null;
+                    synchronized (sink) {
+                        try {
+                            sink.accept(f, digest);
+                        } catch (InterruptedException x) {
+                            throw (IOException) new InterruptedIOException().initCause(x);
+                        }
+                    }
+                });
+            }
+            String[] files = Util.createFileSet(basedir, includes, excludes)
                     .getDirectoryScanner()
-                    .getIncludedFiles()) {
-                f = f.replace(File.separatorChar, '/');
-                r.put(f, f);
+                    .getIncludedFiles();
+            for (String f : files) {
+                String digest = digests ? Util.getDigestOf(new File(basedir, f)) : null;
+                sink.accept(f.replace(File.separatorChar, '/'), digest);
             }
-            return r;
+            return files.length;
         }
     }
 
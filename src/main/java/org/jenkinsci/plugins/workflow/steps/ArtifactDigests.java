@@ -0,0 +1,172 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.jenkinsci.plugins.workflow.steps;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.model.Run;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * MD5 checksums of artifacts archived by the {@code archive} step with deduplication enabled,
+ * so that later builds of the same job can reuse identical files.
+ * Kept in a file of their own in the build directory, one {@code checksum path} line per artifact,
+ * rather than in {@code build.xml}, and written as artifacts are archived.
+ */
+final class ArtifactDigests implements Closeable {
+
+    private static final String FILE_NAME = "artifact-digests.txt";
+
+    /** Flush threshold, in characters. */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final File file;
+    private final StringBuilder buffer = new StringBuilder();
+
+    ArtifactDigests(@NonNull Run<?, ?> run) {
+        this.file = new File(run.getRootDir(), FILE_NAME);
+    }
+
+    /**
+     * Records the checksum of an artifact which has been archived.
+     * @param path as reported by the agent, checked by {@link #checkPath}
+     */
+    void record(@NonNull String path, @NonNull String digest) throws IOException {
+        buffer.append(digest).append(' ').append(path).append('\n');
+        if (buffer.length() >= BUFFER_SIZE) {
+            flush();
+        }
+    }
+
+    /**
+     * Appends buffered lines whole, so that concurrent {@code archive} steps in one build do not interleave them.
+     */
+    private void flush() throws IOException {
+        synchronized (ArtifactDigests.class) {
+            try (Writer w = Files.newBufferedWriter(
+                    file.toPath(),
+                    StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE,
+                    StandardOpenOption.APPEND)) {
+                w.append(buffer);
+            }
+        }
+        buffer.setLength(0);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (buffer.length() > 0) {
+            flush();
+        }
+    }
+
+    /**
+     * Checks that an artifact path reported by an agent is a plain relative path,
+     * since it is later resolved against an artifacts directory on the controller.
+     */
+    static void checkPath(@NonNull String path) throws IOException {
+        if (!isPlainRelative(path)) {
+            throw new IOException("Refusing to archive " + path + " outside the artifacts directory");
+        }
+    }
+
+    private static boolean isPlainRelative(String path) {
+        if (path.isEmpty() || path.indexOf('\\') != -1 || path.indexOf(':') != -1) {
+            return false;
+        }
+        for (String segment : path.split("/", -1)) {
+            if (segment.isEmpty() || segment.equals(".") || segment.equals("..")) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * An artifact of an earlier build.
+     */
+    static final class Artifact {
+        private final File dir;
+        private final String path;
+
+        Artifact(File dir, String path) {
+            this.dir = dir;
+            this.path = path;
+        }
+
+        /**
+         * Locates the artifact, making sure that it still exists and that, even following any symbolic links,
+         * it lies within the artifacts directory of its build.
+         * @return the real path of the file, or null if it cannot be used
+         */
+        @CheckForNull
+        Path locate() throws IOException {
+            Path file = dir.toPath().resolve(path);
+            if (!Files.isRegularFile(file)) {
+                return null;
+            }
+            Path real = file.toRealPath();
+            return real.startsWith(dir.toPath().toRealPath()) ? real : null;
+        }
+    }
+
+    /**
+     * Finds files archived by some recent builds with the built-in artifact storage.
+     * @param builds how many earlier builds to consider
+     * @return checksum to artifact, preferring newer builds
+     */
+    static @NonNull Map<String, Artifact> previousArtifacts(@NonNull Run<?, ?> run, int builds) throws IOException {
+        Map<String, Artifact> r = new HashMap<>();
+        Run<?, ?> b = run.getPreviousBuild();
+        for (int i = 0; i < builds && b != null; i++, b = b.getPreviousBuild()) {
+            File digests = new File(b.getRootDir(), FILE_NAME);
+            if (!digests.isFile()) {
+                continue;
+            }
+            File dir = b.getArtifactsDir();
+            try (BufferedReader reader = Files.newBufferedReader(digests.toPath(), StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    // skip anything but a 32 digit checksum, a space and a plain relative path
+                    if (line.length() > 33 && line.charAt(32) == ' ' && isPlainRelative(line.substring(33))) {
+                        r.putIfAbsent(line.substring(0, 32), new Artifact(dir, line.substring(33)));
+                    }
+                }
+            }
+        }
+        return r;
+    }
+}
@@ -22,6 +22,24 @@ public class ArtifactUnarchiverStep extends Step {
     @DataBoundSetter
     public Map<String, String> mapping;
 
+    /**
+     * Maximum number of files to copy at once.
+     */
+    @DataBoundSetter
+    public int concurrency = 1;
+
+    /**
+     * Whether to send the contents of each directory in one stream rather than file by file.
+     */
+    @DataBoundSetter
+    public boolean bulk;
+
+    /**
+     * Whether to leave alone destination files which already match the fingerprint of the artifact.
+     */
+    @DataBoundSetter
+    public boolean skipIdentical;
+
     // TBD: alternate single-file option value ~ Collections.singletonMap(value, value)
 
     @DataBoundConstructor
@@ -29,7 +47,7 @@ public class ArtifactUnarchiverStep extends Step {
 
     @Override
     public StepExecution start(StepContext context) throws Exception {
-        return new ArtifactUnarchiverStepExecution(mapping, context);
+        return new ArtifactUnarchiverStepExecution(this, context);
     }
 
     @Extension
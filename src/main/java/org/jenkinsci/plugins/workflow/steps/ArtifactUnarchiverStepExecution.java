@@ -1,33 +1,82 @@
 package org.jenkinsci.plugins.workflow.steps;
 
+import edu.umd.cs.findbugs.annotations.CheckForNull;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import hudson.AbortException;
 import hudson.FilePath;
+import hudson.Functions;
+import hudson.Util;
+import hudson.model.Computer;
 import hudson.model.Run;
 import hudson.model.TaskListener;
+import hudson.remoting.VirtualChannel;
+import hudson.security.ACL;
+import hudson.security.ACLContext;
+import hudson.tasks.Fingerprinter;
 import io.jenkins.plugins.httpclient.RobustHTTPClient;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import jenkins.MasterToSlaveFileCallable;
 import jenkins.model.ArtifactManager;
+import jenkins.model.Jenkins;
+import jenkins.util.SystemProperties;
 import jenkins.util.VirtualFile;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.apache.commons.io.IOUtils;
+import org.apache.tools.ant.types.selectors.SelectorUtils;
+import org.jenkinsci.plugins.workflow.graph.FlowNode;
+import org.springframework.security.core.Authentication;
 
 public class ArtifactUnarchiverStepExecution extends SynchronousNonBlockingStepExecution<List<FilePath>> {
 
+    /**
+     * Upper bound on {@link ArtifactUnarchiverStep#concurrency}.
+     */
+    private static final int MAX_CONCURRENCY =
+            SystemProperties.getInteger(ArtifactUnarchiverStepExecution.class.getName() + ".maxConcurrency", 16);
+
     @SuppressFBWarnings(value = "SE_TRANSIENT_FIELD_NOT_RESTORED", justification = "Only used when starting.")
     private final transient Map<String, String> mapping;
 
-    ArtifactUnarchiverStepExecution(Map<String, String> mapping, StepContext context) throws Exception {
+    @SuppressFBWarnings(value = "SE_TRANSIENT_FIELD_NOT_RESTORED", justification = "Only used when starting.")
+    private final transient int concurrency;
+
+    @SuppressFBWarnings(value = "SE_TRANSIENT_FIELD_NOT_RESTORED", justification = "Only used when starting.")
+    private final transient boolean bulk;
+
+    @SuppressFBWarnings(value = "SE_TRANSIENT_FIELD_NOT_RESTORED", justification = "Only used when starting.")
+    private final transient boolean skipIdentical;
+
+    ArtifactUnarchiverStepExecution(ArtifactUnarchiverStep step, StepContext context) throws Exception {
         super(context);
-        if (mapping == null) {
+        if (step.mapping == null) {
             throw new AbortException("'mapping' has not been defined for this 'unarchive' step");
         }
-        this.mapping = mapping;
+        this.mapping = step.mapping;
+        this.concurrency = Math.max(1, Math.min(step.concurrency, MAX_CONCURRENCY));
+        this.bulk = step.bulk;
+        this.skipIdentical = step.skipIdentical;
     }
 
     @Override
@@ -38,12 +87,21 @@ public class ArtifactUnarchiverStepExecution extends SynchronousNonBlockingStepE
 
         ArtifactManager am = r.getArtifactManager();
 
-        List<FilePath> files = new ArrayList<>();
+        VirtualFile root = am.root();
+        long listStart = System.nanoTime();
+        ArtifactIndex index = ArtifactIndex.build(root, mapping.keySet());
+        long listNanos = System.nanoTime() - listStart;
+
+        List<Copy> copies = new ArrayList<>();
 
         for (Entry<String, String> e : mapping.entrySet()) {
             FilePath dst = new FilePath(getContext().get(FilePath.class), e.getValue());
             String src = e.getKey();
-            Collection<String> all = am.root().list(src.replace('\\', '/'), null, true);
+            listStart = System.nanoTime();
+            Collection<String> all = index != null
+                    ? index.list(src.replace('\\', '/'))
+                    : root.list(src.replace('\\', '/'), null, true);
+            listNanos += System.nanoTime() - listStart;
             if (all.isEmpty()) {
                 throw new AbortException("no artifacts to unarchive in " + src);
             } else if (all.size() == 1 && all.stream().findFirst().get().equals(src)) {
@@ -53,29 +111,368 @@ public class ArtifactUnarchiverStepExecution extends SynchronousNonBlockingStepE
                     dst = dst.child(getFileName(firstElement));
                 }
 
-                files.add(copy(am.root().child(firstElement), dst, listener));
+                copies.add(new Copy(firstElement, am.root().child(firstElement), dst, null));
             } else {
                 // copy into a directory
                 for (String path : all) {
-                    files.add(copy(am.root().child(path), dst.child(path), listener));
+                    copies.add(new Copy(path, am.root().child(path), dst.child(path), dst));
                 }
             }
         }
 
+        List<FilePath> files = new ArrayList<>();
+        for (Copy copy : copies) {
+            files.add(copy.dst);
+        }
+        Map<String, Long> metrics = new LinkedHashMap<>();
+        metrics.put("listMillis", listNanos / 1_000_000);
+        if (skipIdentical) {
+            copies = skipIdentical(r, copies, listener, metrics);
+        }
+
+        long start = System.nanoTime();
+        copyAll(copies, listener);
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        long bytes = 0;
+        for (Copy copy : copies) {
+            if (copy.bytes < 0) {
+                bytes = -1;
+                break;
+            }
+            bytes += copy.bytes;
+        }
+        if (concurrency > 1 || bulk || skipIdentical) {
+            StringBuilder message = new StringBuilder("Copied ").append(copies.size()).append(" artifact(s)");
+            if (bytes >= 0) {
+                message.append(" (").append(Functions.humanReadableByteSize(bytes)).append(')');
+            }
+            message.append(" in ").append(Util.getTimeSpanString(millis));
+            if (bytes >= 0) {
+                message.append(", ")
+                        .append(Functions.humanReadableByteSize(bytes * 1000 / Math.max(1, millis)))
+                        .append("/s");
+            }
+            listener.getLogger().println(message);
+        }
+        metrics.put("files", (long) copies.size());
+        if (bytes >= 0) {
+            metrics.put("bytes", bytes);
+        }
+        metrics.put("copyMillis", millis);
+        TransferStatisticsAction.record(getContext().get(FlowNode.class), metrics);
+
         return files;
     }
 
-    private FilePath copy(VirtualFile src, FilePath dst, TaskListener listener)
-            throws IOException, InterruptedException {
-        URL u = src.toExternalURL();
-        if (u != null) {
-            new RobustHTTPClient().copyFromRemotely(dst, u, listener);
-        } else {
-            try (InputStream in = src.open()) {
-                dst.copyFrom(in);
+    /**
+     * Artifact paths of a build under the directory common to several mapping entries, listed once
+     * so that each entry need not make its own, possibly remote,
+     * call to {@link VirtualFile#list(String, String, boolean)}.
+     */
+    private static final class ArtifactIndex {
+
+        private final NavigableSet<String> paths;
+
+        private ArtifactIndex(Collection<String> paths) {
+            this.paths = new TreeSet<>(paths);
+        }
+
+        /**
+         * Lists artifacts for several mapping entries at once.
+         * @return null if there is only one entry, or the entries share no directory,
+         *         in which case listing per entry avoids walking the whole artifact tree
+         */
+        static @CheckForNull ArtifactIndex build(VirtualFile root, Collection<String> sources) throws IOException {
+            if (sources.size() < 2) {
+                return null;
+            }
+            String common = null;
+            for (String source : sources) {
+                for (String pattern : source.replace('\\', '/').split(",")) {
+                    pattern = pattern.trim();
+                    if (pattern.isEmpty()) {
+                        continue;
+                    }
+                    String prefix = literalPrefix(pattern);
+                    if (common == null) {
+                        common = prefix;
+                    } else {
+                        int i = 0;
+                        while (i < common.length() && i < prefix.length() && common.charAt(i) == prefix.charAt(i)) {
+                            i++;
+                        }
+                        common = common.substring(0, common.lastIndexOf('/', i - 1) + 1);
+                    }
+                }
+            }
+            if (common == null || common.isEmpty()) {
+                return null;
+            }
+            return new ArtifactIndex(root.list(common + SelectorUtils.DEEP_TREE_MATCH, null, true));
+        }
+
+        /**
+         * The directory part of a pattern before its first wildcard, with a trailing {@code /}, or empty.
+         */
+        private static String literalPrefix(String pattern) {
+            int wildcard = pattern.length();
+            for (int i = 0; i < pattern.length(); i++) {
+                if (pattern.charAt(i) == '*' || pattern.charAt(i) == '?') {
+                    wildcard = i;
+                    break;
+                }
+            }
+            return pattern.substring(0, pattern.lastIndexOf('/', wildcard - 1) + 1);
+        }
+
+        /**
+         * Finds artifacts matching comma-separated Ant patterns,
+         * only examining paths under the literal directory prefix of each pattern.
+         */
+        Collection<String> list(String includes) {
+            Set<String> r = new TreeSet<>();
+            for (String pattern : includes.split(",")) {
+                pattern = pattern.trim();
+                if (pattern.isEmpty()) {
+                    continue;
+                }
+                String prefix = literalPrefix(pattern);
+                ParallelFileScanner scanner = new ParallelFileScanner(pattern, null, false);
+                for (String path : paths.subSet(prefix, true, prefix + Character.MAX_VALUE, true)) {
+                    if (scanner.matches(path)) {
+                        r.add(path);
+                    }
+                }
+            }
+            return r;
+        }
+    }
+
+    /**
+     * Filters out files whose destination already has the MD5 checksum
+     * recorded for the artifact by {@link Fingerprinter}, checking all destinations in one call to the agent.
+     * Artifacts which were not fingerprinted are always copied.
+     */
+    private List<Copy> skipIdentical(Run<?, ?> r, List<Copy> copies, TaskListener listener, Map<String, Long> metrics)
+            throws Exception {
+        Fingerprinter.FingerprintAction fingerprints = r.getAction(Fingerprinter.FingerprintAction.class);
+        Map<String, String> records =
+                fingerprints != null ? fingerprints.getRecords() : Collections.<String, String>emptyMap();
+        List<Copy> candidates = new ArrayList<>();
+        List<String> paths = new ArrayList<>();
+        List<String> digests = new ArrayList<>();
+        for (Copy copy : copies) {
+            String digest = records.get(copy.artifact);
+            if (digest != null) {
+                candidates.add(copy);
+                paths.add(copy.dst.getRemote());
+                digests.add(digest);
+            }
+        }
+        if (candidates.size() < copies.size()) {
+            listener.getLogger()
+                    .println((copies.size() - candidates.size())
+                            + " artifact(s) have no recorded fingerprint and will be copied regardless;"
+                            + " use archiveArtifacts with fingerprint: true to let skipIdentical compare them");
+        }
+        if (candidates.isEmpty()) {
+            return copies;
+        }
+        long[] identical = getContext().get(FilePath.class).act(new CompareDigests(paths, digests));
+        Set<Copy> skip = new HashSet<>();
+        long skippedBytes = 0;
+        for (int i = 0; i < candidates.size(); i++) {
+            if (identical[i] >= 0) {
+                skip.add(candidates.get(i));
+                skippedBytes += identical[i];
+            }
+        }
+        int skipped = skip.size();
+        List<Copy> remaining = new ArrayList<>(copies);
+        remaining.removeIf(skip::contains);
+        listener.getLogger()
+                .println("Skipped " + skipped + " artifact(s) (" + Functions.humanReadableByteSize(skippedBytes)
+                        + ") already present with identical contents");
+        metrics.put("skippedFiles", (long) skipped);
+        metrics.put("skippedBytes", skippedBytes);
+        return remaining;
+    }
+
+    /**
+     * Checks which of some files have a given MD5 checksum,
+     * returning the size of each file which does and -1 for the others.
+     * Sizes are only read on the agent, so no artifact metadata needs to be fetched from the artifact manager.
+     */
+    private static final class CompareDigests extends MasterToSlaveFileCallable<long[]> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final List<String> paths;
+        private final List<String> digests;
+
+        CompareDigests(List<String> paths, List<String> digests) {
+            this.paths = paths;
+            this.digests = digests;
+        }
+
+        @Override
+        public long[] invoke(File ws, VirtualChannel channel) throws IOException, InterruptedException {
+            long[] identical = new long[paths.size()];
+            for (int i = 0; i < identical.length; i++) {
+                File f = new File(paths.get(i));
+                identical[i] = f.isFile() && Util.getDigestOf(f).equalsIgnoreCase(digests.get(i)) ? f.length() : -1;
+            }
+            return identical;
+        }
+    }
+
+    /**
+     * Copies files, up to {@link #concurrency} at a time.
+     * In {@link #bulk} mode, files within directories are sent through the controller as one archive per directory
+     * instead, even if the artifact manager could offer external URLs.
+     */
+    private void copyAll(List<Copy> copies, TaskListener listener) throws Exception {
+        if (bulk) {
+            Map<FilePath, List<Copy>> archives = new LinkedHashMap<>();
+            List<Copy> individual = new ArrayList<>();
+            for (Copy copy : copies) {
+                if (copy.base != null) {
+                    archives.computeIfAbsent(copy.base, k -> new ArrayList<>()).add(copy);
+                } else {
+                    individual.add(copy);
+                }
+            }
+            for (Entry<FilePath, List<Copy>> archive : archives.entrySet()) {
+                untar(archive.getKey(), archive.getValue());
+            }
+            copies = individual;
+        }
+        if (concurrency == 1 || copies.size() <= 1) {
+            for (Copy copy : copies) {
+                copy.run(listener);
+            }
+            return;
+        }
+        // A few workers on the shared remoting pool each take the next pending copy until none remain.
+        AtomicInteger next = new AtomicInteger();
+        AtomicBoolean failed = new AtomicBoolean();
+        Authentication auth = Jenkins.getAuthentication2();
+        List<Future<Void>> workers = new ArrayList<>();
+        List<Copy> pending = copies;
+        for (int i = 0; i < Math.min(concurrency, copies.size()); i++) {
+            workers.add(Computer.threadPoolForRemoting.submit(() -> {
+                try (ACLContext context = ACL.as2(auth)) {
+                    int n;
+                    while ((n = next.getAndIncrement()) < pending.size() && !failed.get()) {
+                        pending.get(n).run(listener);
+                    }
+                } catch (Exception x) {
+                    failed.set(true);
+                    throw x;
+                }
+                return null;
+            }));
+        }
+        try {
+            for (Future<Void> worker : workers) {
+                try {
+                    worker.get();
+                } catch (ExecutionException x) {
+                    throw x.getCause() instanceof Exception ? (Exception) x.getCause() : x;
+                }
+            }
+        } finally {
+            for (Future<Void> worker : workers) {
+                worker.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * Streams files from the controller as a single tar archive and unpacks it under a directory.
+     * The archive is only terminated properly if every file was read,
+     * and the outcome of the producing side is always checked,
+     * so that a truncated stream is never taken for a complete one.
+     */
+    private static void untar(FilePath base, List<Copy> copies) throws Exception {
+        PipedInputStream in = new PipedInputStream(PIPE_BUFFER_SIZE);
+        PipedOutputStream out = new PipedOutputStream(in);
+        Authentication auth = Jenkins.getAuthentication2();
+        Future<?> producer = Computer.threadPoolForRemoting.submit(() -> {
+            try (ACLContext context = ACL.as2(auth);
+                    OutputStream raw = out) {
+                TarArchiveOutputStream tar = new TarArchiveOutputStream(raw);
+                tar.setLongFileMode(TarArchiveOutputStream.LONGFILE_POSIX);
+                tar.setBigNumberMode(TarArchiveOutputStream.BIGNUMBER_POSIX);
+                for (Copy copy : copies) {
+                    TarArchiveEntry entry = new TarArchiveEntry(copy.artifact);
+                    copy.bytes = copy.src.length();
+                    entry.setSize(copy.bytes);
+                    tar.putArchiveEntry(entry);
+                    try (InputStream is = copy.src.open()) {
+                        IOUtils.copy(is, tar);
+                    }
+                    tar.closeArchiveEntry();
+                }
+                // only now write the end-of-archive records; on failure the stream is just cut off
+                tar.close();
+            }
+            return null;
+        });
+        Exception failure = null;
+        try {
+            base.untarFrom(in, FilePath.TarCompression.NONE);
+        } catch (Exception x) {
+            failure = x;
+        } finally {
+            in.close();
+        }
+        try {
+            producer.get();
+        } catch (ExecutionException x) {
+            Exception cause = x.getCause() instanceof Exception ? (Exception) x.getCause() : x;
+            if (failure != null) {
+                cause.addSuppressed(failure);
+            }
+            throw cause;
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private static final int PIPE_BUFFER_SIZE = 64 * 1024;
+
+    private static final class Copy {
+        /** Path of the artifact. */
+        final String artifact;
+
+        final VirtualFile src;
+        final FilePath dst;
+        /** Directory being copied into, under which {@link #dst} is at {@link #artifact}, if any. */
+        final @CheckForNull FilePath base;
+
+        /** Bytes copied, or -1 if unknown. */
+        long bytes = -1;
+
+        Copy(String artifact, VirtualFile src, FilePath dst, @CheckForNull FilePath base) {
+            this.artifact = artifact;
+            this.src = src;
+            this.dst = dst;
+            this.base = base;
+        }
+
+        void run(TaskListener listener) throws IOException, InterruptedException {
+            URL u = src.toExternalURL();
+            if (u != null) {
+                new RobustHTTPClient().copyFromRemotely(dst, u, listener);
+            } else {
+                try (InputStream in = src.open();
+                        OutputStream out = dst.write()) {
+                    bytes = IOUtils.copyLarge(in, out);
+                }
             }
         }
-        return dst;
     }
 
     /**
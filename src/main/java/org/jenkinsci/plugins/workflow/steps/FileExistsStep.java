@@ -24,19 +24,41 @@
 
 package org.jenkinsci.plugins.workflow.steps;
 
+import edu.umd.cs.findbugs.annotations.CheckForNull;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import hudson.AbortException;
 import hudson.Extension;
 import hudson.FilePath;
+import hudson.Util;
 import hudson.model.TaskListener;
+import hudson.remoting.VirtualChannel;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.PosixFileAttributes;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import jenkins.MasterToSlaveFileCallable;
 import org.apache.commons.lang3.StringUtils;
 import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.DataBoundSetter;
 
 public final class FileExistsStep extends Step {
 
     private final String file;
+    private List<String> files;
+    private boolean stat;
+    private String glob;
 
     @DataBoundConstructor
     public FileExistsStep(String file) {
@@ -47,9 +69,45 @@ public final class FileExistsStep extends Step {
         return file;
     }
 
+    public List<String> getFiles() {
+        return files;
+    }
+
+    /**
+     * Check several paths in one call to the agent, returning a map keyed by path.
+     */
+    @DataBoundSetter
+    public void setFiles(List<String> files) {
+        this.files = files;
+    }
+
+    public boolean isStat() {
+        return stat;
+    }
+
+    /**
+     * Return details of each path rather than just whether it exists.
+     */
+    @DataBoundSetter
+    public void setStat(boolean stat) {
+        this.stat = stat;
+    }
+
+    public String getGlob() {
+        return glob;
+    }
+
+    /**
+     * Check whether any file matches these Ant-style patterns, instead of checking a single path.
+     */
+    @DataBoundSetter
+    public void setGlob(String glob) {
+        this.glob = Util.fixEmptyAndTrim(glob);
+    }
+
     @Override
     public StepExecution start(StepContext context) throws Exception {
-        return new Execution(file, context);
+        return new Execution(this, context);
     }
 
     @Extension
@@ -72,25 +130,162 @@ public final class FileExistsStep extends Step {
         }
     }
 
-    public static final class Execution extends SynchronousNonBlockingStepExecution<Boolean> {
+    public static final class Execution extends SynchronousNonBlockingStepExecution<Object> {
 
         @SuppressFBWarnings(value = "SE_TRANSIENT_FIELD_NOT_RESTORED", justification = "Only used when starting.")
         private final transient String file;
 
-        Execution(String file, StepContext context) {
+        @SuppressFBWarnings(value = "SE_TRANSIENT_FIELD_NOT_RESTORED", justification = "Only used when starting.")
+        private final transient List<String> files;
+
+        @SuppressFBWarnings(value = "SE_TRANSIENT_FIELD_NOT_RESTORED", justification = "Only used when starting.")
+        private final transient boolean stat;
+
+        @SuppressFBWarnings(value = "SE_TRANSIENT_FIELD_NOT_RESTORED", justification = "Only used when starting.")
+        private final transient String glob;
+
+        Execution(FileExistsStep step, StepContext context) {
             super(context);
-            this.file = file;
+            this.file = step.file;
+            this.files = step.files;
+            this.stat = step.stat;
+            this.glob = step.glob;
         }
 
         @Override
-        protected Boolean run() throws Exception {
+        protected Object run() throws Exception {
+            FilePath ws = getContext().get(FilePath.class);
+            // Plain existence checks may be answered from an index captured by withWorkspaceIndex.
+            WorkspaceIndex index = stat ? null : getContext().get(WorkspaceIndex.class);
+            if ((glob != null ? 1 : 0) + (files != null ? 1 : 0) + (StringUtils.isNotEmpty(file) ? 1 : 0) > 1) {
+                throw new AbortException("Specify only one of file, files, or glob");
+            }
+            if (glob != null) {
+                Boolean indexed = index != null ? index.anyMatch(ws, glob) : null;
+                return indexed != null ? indexed : ws.act(new AnyMatch(glob));
+            }
+            if (files != null) {
+                List<String> paths = new ArrayList<>();
+                for (Object path : files) { // may be GStrings
+                    paths.add(String.valueOf(path));
+                }
+                if (index != null) {
+                    Map<String, Object> r = new LinkedHashMap<>();
+                    for (String path : paths) {
+                        Boolean indexed = index.exists(ws.child(path));
+                        if (indexed == null) {
+                            r = null;
+                            break;
+                        }
+                        r.put(path, indexed);
+                    }
+                    if (r != null) {
+                        return r;
+                    }
+                }
+                return ws.act(new Check(paths, stat));
+            }
+            if (stat) {
+                return ws.act(new Check(Collections.singletonList(StringUtils.defaultString(file)), true))
+                        .values()
+                        .iterator()
+                        .next();
+            }
             if (StringUtils.isEmpty(file)) {
                 getContext().get(TaskListener.class).getLogger().println(Messages.FileExistsStep_EmptyString());
-                return getContext().get(FilePath.class).child("").exists();
+                return exists(ws.child(""), index);
             }
-            return getContext().get(FilePath.class).child(file).exists();
+            return exists(ws.child(file), index);
+        }
+
+        private static boolean exists(FilePath f, @CheckForNull WorkspaceIndex index)
+                throws IOException, InterruptedException {
+            Boolean indexed = index != null ? index.exists(f) : null;
+            return indexed != null ? indexed : f.exists();
         }
 
         private static final long serialVersionUID = 1L;
     }
+
+    /**
+     * Checks whether any file beneath a directory matches some Ant patterns, without listing them all.
+     */
+    private static final class AnyMatch extends MasterToSlaveFileCallable<Boolean> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final String glob;
+
+        AnyMatch(String glob) {
+            this.glob = glob;
+        }
+
+        @Override
+        public Boolean invoke(File dir, VirtualChannel channel) throws IOException, InterruptedException {
+            return new ParallelFileScanner(glob, null, true).any(dir);
+        }
+    }
+
+    /**
+     * Checks several paths relative to a directory.
+     * @return path to either whether it exists, or details about it
+     */
+    private static final class Check extends MasterToSlaveFileCallable<Map<String, Object>> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final List<String> paths;
+        private final boolean stat;
+
+        Check(List<String> paths, boolean stat) {
+            this.paths = paths;
+            this.stat = stat;
+        }
+
+        @Override
+        public Map<String, Object> invoke(File dir, VirtualChannel channel) throws IOException, InterruptedException {
+            Map<String, Object> r = new LinkedHashMap<>();
+            for (String path : paths) {
+                // resolved as FilePath.child would, as for a single file
+                Path p = new File(new FilePath(dir).child(path).getRemote()).toPath();
+                r.put(path, stat ? stat(p) : Files.exists(p));
+            }
+            return r;
+        }
+
+        /**
+         * Describes a path: {@code exists}, and if so {@code type} ({@code file}, {@code directory},
+         * {@code symlink}, or {@code other}), {@code size}, {@code lastModified} in milliseconds,
+         * and {@code permissions} such as {@code rwxr-xr-x} where the file system supports them.
+         * Symbolic links are described themselves rather than followed.
+         */
+        private static Map<String, Object> stat(Path p) throws IOException {
+            Map<String, Object> r = new LinkedHashMap<>();
+            BasicFileAttributes attrs;
+            try {
+                attrs = Files.readAttributes(p, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+            } catch (NoSuchFileException x) {
+                r.put("exists", false);
+                return r;
+            }
+            r.put("exists", true);
+            r.put(
+                    "type",
+                    attrs.isSymbolicLink()
+                            ? "symlink"
+                            : attrs.isDirectory() ? "directory" : attrs.isRegularFile() ? "file" : "other");
+            r.put("size", attrs.size());
+            r.put("lastModified", attrs.lastModifiedTime().toMillis());
+            String permissions = null;
+            try {
+                permissions = PosixFilePermissions.toString(
+                        Files.readAttributes(p, PosixFileAttributes.class, LinkOption.NOFOLLOW_LINKS)
+                                .permissions());
+            } catch (UnsupportedOperationException x) {
+                // e.g. Windows
+            }
+            r.put("permissions", permissions);
+            return r;
+        }
+    }
 }
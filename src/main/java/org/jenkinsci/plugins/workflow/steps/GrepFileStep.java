@@ -0,0 +1,245 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.jenkinsci.plugins.workflow.steps;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.AbortException;
+import hudson.Extension;
+import hudson.FilePath;
+import hudson.Util;
+import hudson.remoting.VirtualChannel;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Serializable;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import jenkins.MasterToSlaveFileCallable;
+import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.DataBoundSetter;
+
+/**
+ * Searches files for lines matching a regular expression, on the agent,
+ * so that large files need not be sent to the controller.
+ */
+public final class GrepFileStep extends Step {
+
+    private final String pattern;
+    private String file;
+    private String glob;
+    private String encoding;
+    private int maxResults = 1000;
+
+    @DataBoundConstructor
+    public GrepFileStep(String pattern) {
+        this.pattern = pattern;
+    }
+
+    public String getPattern() {
+        return pattern;
+    }
+
+    public String getFile() {
+        return file;
+    }
+
+    @DataBoundSetter
+    public void setFile(String file) {
+        this.file = Util.fixEmptyAndTrim(file);
+    }
+
+    public String getGlob() {
+        return glob;
+    }
+
+    /**
+     * Ant-style patterns of files to search, relative to the current directory, instead of a single {@link #file}.
+     */
+    @DataBoundSetter
+    public void setGlob(String glob) {
+        this.glob = Util.fixEmptyAndTrim(glob);
+    }
+
+    public String getEncoding() {
+        return encoding;
+    }
+
+    /**
+     * Set the encoding to be used when reading files. If the specified value is null or
+     * whitespace-only, then the platform default encoding of the controller will be used.
+     */
+    @DataBoundSetter
+    public void setEncoding(String encoding) {
+        this.encoding = Util.fixEmptyAndTrim(encoding);
+    }
+
+    public int getMaxResults() {
+        return maxResults;
+    }
+
+    /**
+     * Maximum number of matching lines to return; further matches are only counted.
+     */
+    @DataBoundSetter
+    public void setMaxResults(int maxResults) {
+        this.maxResults = maxResults;
+    }
+
+    @Override
+    public StepExecution start(StepContext context) throws Exception {
+        return new Execution(this, context);
+    }
+
+    @Extension
+    public static final class DescriptorImpl extends StepDescriptor {
+
+        @Override
+        public String getFunctionName() {
+            return "grepFile";
+        }
+
+        @NonNull
+        @Override
+        public String getDisplayName() {
+            return "Search files in workspace for matching lines";
+        }
+
+        @Override
+        public Set<? extends Class<?>> getRequiredContext() {
+            return Collections.singleton(FilePath.class);
+        }
+    }
+
+    public static final class Execution extends SynchronousNonBlockingStepExecution<Map<String, Object>> {
+
+        private final transient GrepFileStep step;
+
+        Execution(GrepFileStep step, StepContext context) {
+            super(context);
+            this.step = step;
+        }
+
+        @Override
+        protected Map<String, Object> run() throws Exception {
+            if ((step.file == null) == (step.glob == null)) {
+                throw new AbortException("Specify exactly one of file or glob");
+            }
+            if (step.maxResults < 0) {
+                throw new AbortException("maxResults may not be negative");
+            }
+            // Compile here so that syntax errors are reported before contacting the agent.
+            Pattern.compile(step.pattern);
+            String charset = (step.encoding != null ? Charset.forName(step.encoding) : Charset.defaultCharset()).name();
+            Result result = getContext()
+                    .get(FilePath.class)
+                    .act(new Grep(step.pattern, step.file, step.glob, charset, step.maxResults));
+            Map<String, Object> r = new LinkedHashMap<>();
+            r.put("matches", result.matches);
+            r.put("count", result.count);
+            r.put("truncated", result.count > result.matches.size());
+            return r;
+        }
+
+        private static final long serialVersionUID = 1L;
+    }
+
+    private static final class Result implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        /** Each with {@code file}, {@code lineNumber}, and {@code line}. */
+        final List<Map<String, Object>> matches = new ArrayList<>();
+
+        int count;
+    }
+
+    private static final class Grep extends MasterToSlaveFileCallable<Result> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final String pattern;
+        private final @CheckForNull String file;
+        private final @CheckForNull String glob;
+        private final String charset;
+        private final int maxResults;
+
+        Grep(String pattern, @CheckForNull String file, @CheckForNull String glob, String charset, int maxResults) {
+            this.pattern = pattern;
+            this.file = file;
+            this.glob = glob;
+            this.charset = charset;
+            this.maxResults = maxResults;
+        }
+
+        @Override
+        public Result invoke(File dir, VirtualChannel channel) throws IOException, InterruptedException {
+            Matcher matcher = Pattern.compile(pattern).matcher("");
+            Result result = new Result();
+            if (file != null) {
+                // resolved like FilePath.child, as readFile does, so absolute paths are accepted
+                grep(new File(new FilePath(dir).child(file).getRemote()), file, matcher, result);
+            } else {
+                // search in a stable order
+                Set<String> files = new ConcurrentSkipListSet<>();
+                new ParallelFileScanner(glob, null, true).scan(dir, files::add);
+                for (String f : files) {
+                    grep(new File(dir, f), f, matcher, result);
+                }
+            }
+            return result;
+        }
+
+        private void grep(File f, String name, Matcher matcher, Result result) throws IOException {
+            try (BufferedReader r =
+                    new BufferedReader(new InputStreamReader(Files.newInputStream(f.toPath()), charset))) {
+                int lineNumber = 0;
+                String line;
+                while ((line = r.readLine()) != null) {
+                    lineNumber++;
+                    if (matcher.reset(line).find()) {
+                        if (result.count++ < maxResults) {
+                            Map<String, Object> match = new LinkedHashMap<>();
+                            match.put("file", name);
+                            match.put("lineNumber", lineNumber);
+                            match.put("line", line);
+                            result.matches.add(match);
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,218 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.jenkinsci.plugins.workflow.steps;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.AbortException;
+import hudson.Extension;
+import hudson.FilePath;
+import hudson.Util;
+import hudson.remoting.VirtualChannel;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import jenkins.MasterToSlaveFileCallable;
+import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.DataBoundSetter;
+
+/**
+ * Computes checksums of files on the agent, along with a combined checksum usable as a cache key.
+ */
+public final class HashFilesStep extends Step {
+
+    private static final String DEFAULT_ALGORITHM = "SHA-256";
+
+    private String file;
+    private String glob;
+    private String excludes;
+    private String algorithm = DEFAULT_ALGORITHM;
+
+    @DataBoundConstructor
+    public HashFilesStep() {}
+
+    public String getFile() {
+        return file;
+    }
+
+    @DataBoundSetter
+    public void setFile(String file) {
+        this.file = Util.fixEmptyAndTrim(file);
+    }
+
+    public String getGlob() {
+        return glob;
+    }
+
+    /**
+     * Ant-style patterns of files to hash, relative to the current directory, instead of a single {@link #file}.
+     */
+    @DataBoundSetter
+    public void setGlob(String glob) {
+        this.glob = Util.fixEmptyAndTrim(glob);
+    }
+
+    public String getExcludes() {
+        return excludes;
+    }
+
+    @DataBoundSetter
+    public void setExcludes(String excludes) {
+        this.excludes = Util.fixEmptyAndTrim(excludes);
+    }
+
+    public String getAlgorithm() {
+        return algorithm;
+    }
+
+    /**
+     * A {@link MessageDigest} algorithm name; {@code SHA-256} by default.
+     */
+    @DataBoundSetter
+    public void setAlgorithm(String algorithm) {
+        algorithm = Util.fixEmptyAndTrim(algorithm);
+        this.algorithm = algorithm != null ? algorithm : DEFAULT_ALGORITHM;
+    }
+
+    @Override
+    public StepExecution start(StepContext context) throws Exception {
+        return new Execution(this, context);
+    }
+
+    @Extension
+    public static final class DescriptorImpl extends StepDescriptor {
+
+        @Override
+        public String getFunctionName() {
+            return "hashFiles";
+        }
+
+        @NonNull
+        @Override
+        public String getDisplayName() {
+            return "Compute checksums of files in workspace";
+        }
+
+        @Override
+        public Set<? extends Class<?>> getRequiredContext() {
+            return Collections.singleton(FilePath.class);
+        }
+    }
+
+    public static final class Execution extends SynchronousNonBlockingStepExecution<Map<String, Object>> {
+
+        private final transient HashFilesStep step;
+
+        Execution(HashFilesStep step, StepContext context) {
+            super(context);
+            this.step = step;
+        }
+
+        @Override
+        protected Map<String, Object> run() throws Exception {
+            if ((step.file == null) == (step.glob == null)) {
+                throw new AbortException("Specify exactly one of file or glob");
+            }
+            try {
+                MessageDigest.getInstance(step.algorithm);
+            } catch (NoSuchAlgorithmException x) {
+                throw new AbortException("Unsupported algorithm " + step.algorithm);
+            }
+            Map<String, String> files = getContext()
+                    .get(FilePath.class)
+                    .act(new Hash(step.file, step.glob, step.excludes, step.algorithm));
+            // Stable regardless of file system order: each path and its checksum, in order of path.
+            MessageDigest aggregate = MessageDigest.getInstance(step.algorithm);
+            for (Map.Entry<String, String> e : files.entrySet()) {
+                aggregate.update((e.getKey() + '\0' + e.getValue() + '\n').getBytes(StandardCharsets.UTF_8));
+            }
+            Map<String, Object> r = new LinkedHashMap<>();
+            r.put("digest", Util.toHexString(aggregate.digest()));
+            r.put("files", files);
+            return r;
+        }
+
+        private static final long serialVersionUID = 1L;
+    }
+
+    /**
+     * Hashes files, in parallel on the shared scanner threads when matching a glob.
+     * @return path to hex checksum, in order of path
+     */
+    private static final class Hash extends MasterToSlaveFileCallable<Map<String, String>> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final @CheckForNull String file;
+        private final @CheckForNull String glob;
+        private final @CheckForNull String excludes;
+        private final String algorithm;
+
+        Hash(@CheckForNull String file, @CheckForNull String glob, @CheckForNull String excludes, String algorithm) {
+            this.file = file;
+            this.glob = glob;
+            this.excludes = excludes;
+            this.algorithm = algorithm;
+        }
+
+        @Override
+        public Map<String, String> invoke(File dir, VirtualChannel channel) throws IOException, InterruptedException {
+            if (file != null) {
+                Map<String, String> r = new TreeMap<>();
+                // resolved like FilePath.child, as readFile does, so absolute paths are accepted
+                r.put(file, hash(new File(new FilePath(dir).child(file).getRemote())));
+                return r;
+            }
+            // checksums are computed on the shared scanner threads
+            Map<String, String> r = new ConcurrentSkipListMap<>();
+            new ParallelFileScanner(glob, excludes, true).scan(dir, path -> r.put(path, hash(new File(dir, path))));
+            return new TreeMap<>(r);
+        }
+
+        private String hash(File f) throws IOException {
+            try (InputStream in = Files.newInputStream(f.toPath())) {
+                MessageDigest digest = MessageDigest.getInstance(algorithm);
+                byte[] buf = new byte[64 * 1024];
+                int n;
+                while ((n = in.read(buf)) != -1) {
+                    digest.update(buf, 0, n);
+                }
+                return Util.toHexString(digest.digest());
+            } catch (NoSuchAlgorithmException x) {
+                throw new IllegalStateException(x);
+            }
+        }
+    }
+}
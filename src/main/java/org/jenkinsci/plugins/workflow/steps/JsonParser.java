@@ -0,0 +1,303 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package org.jenkinsci.plugins.workflow.steps;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Strict JSON parser producing plain maps, lists, strings, numbers, booleans and nulls.
+ * Unlike json-lib, it never reinterprets string values which happen to look like JSON,
+ * such as {@code "[1]"} or {@code "null"}, and it rejects anything after the top-level value.
+ */
+final class JsonParser {
+
+    /** Guards against stack overflow on deeply nested input. */
+    private static final int MAX_DEPTH = 1000;
+
+    private final String text;
+    private int pos;
+
+    private JsonParser(String text) {
+        this.text = text;
+    }
+
+    /**
+     * Parses a complete JSON document.
+     * @throws IllegalArgumentException if the text is not valid JSON
+     */
+    static @CheckForNull Object parse(String text) {
+        JsonParser parser = new JsonParser(text);
+        if (text.startsWith("\uFEFF")) {
+            parser.pos = 1;
+        }
+        Object value = parser.value(0);
+        parser.whitespace();
+        if (parser.pos < text.length()) {
+            throw parser.error("Unexpected text after the end of the document");
+        }
+        return value;
+    }
+
+    private Object value(int depth) {
+        if (depth > MAX_DEPTH) {
+            throw error("Nested too deeply");
+        }
+        whitespace();
+        if (pos == text.length()) {
+            throw error("Unexpected end of document");
+        }
+        char c = text.charAt(pos);
+        switch (c) {
+            case '{':
+                return object(depth);
+            case '[':
+                return array(depth);
+            case '"':
+                return string();
+            case 't':
+                return literal("true", Boolean.TRUE);
+            case 'f':
+                return literal("false", Boolean.FALSE);
+            case 'n':
+                return literal("null", null);
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    return number();
+                }
+                throw error("Unexpected character '" + c + "'");
+        }
+    }
+
+    private Map<String, Object> object(int depth) {
+        Map<String, Object> r = new LinkedHashMap<>();
+        pos++;
+        whitespace();
+        if (consume('}')) {
+            return r;
+        }
+        do {
+            whitespace();
+            if (pos == text.length() || text.charAt(pos) != '"') {
+                throw error("Expected a string key");
+            }
+            String key = string();
+            whitespace();
+            expect(':');
+            r.put(key, value(depth + 1));
+            whitespace();
+        } while (consume(','));
+        expect('}');
+        return r;
+    }
+
+    private List<Object> array(int depth) {
+        List<Object> r = new ArrayList<>();
+        pos++;
+        whitespace();
+        if (consume(']')) {
+            return r;
+        }
+        do {
+            r.add(value(depth + 1));
+            whitespace();
+        } while (consume(','));
+        expect(']');
+        return r;
+    }
+
+    private String string() {
+        pos++;
+        StringBuilder sb = new StringBuilder();
+        while (true) {
+            if (pos == text.length()) {
+                throw error("Unterminated string");
+            }
+            char c = text.charAt(pos++);
+            if (c == '"') {
+                return sb.toString();
+            } else if (c < 0x20) {
+                throw error("Unescaped control character in string");
+            } else if (c != '\\') {
+                sb.append(c);
+                continue;
+            }
+            if (pos == text.length()) {
+                throw error("Unterminated string");
+            }
+            char e = text.charAt(pos++);
+            switch (e) {
+                case '"':
+                case '\\':
+                case '/':
+                    sb.append(e);
+                    break;
+                case 'b':
+                    sb.append('\b');
+                    break;
+                case 'f':
+                    sb.append('\f');
+                    break;
+                case 'n':
+                    sb.append('\n');
+                    break;
+                case 'r':
+                    sb.append('\r');
+                    break;
+                case 't':
+                    sb.append('\t');
+                    break;
+                case 'u':
+                    if (pos + 4 > text.length()) {
+                        throw error("Incomplete unicode escape");
+                    }
+                    int code = 0;
+                    for (int i = 0; i < 4; i++) {
+                        int digit = hexDigit(text.charAt(pos + i));
+                        if (digit < 0) {
+                            throw error("Invalid unicode escape");
+                        }
+                        code = code * 16 + digit;
+                    }
+                    sb.append((char) code);
+                    pos += 4;
+                    break;
+                default:
+                    throw error("Invalid escape '\\" + e + "'");
+            }
+        }
+    }
+
+    /** Value of an ASCII hexadecimal digit, or -1; unlike {@link Integer#parseInt} this admits no sign. */
+    private static int hexDigit(char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        } else if (c >= 'a' && c <= 'f') {
+            return c - 'a' + 10;
+        } else if (c >= 'A' && c <= 'F') {
+            return c - 'A' + 10;
+        } else {
+            return -1;
+        }
+    }
+
+    private Number number() {
+        int start = pos;
+        consume('-');
+        if (consume('0')) {
+            // no leading zeros
+        } else if (!digits()) {
+            throw error("Invalid number");
+        }
+        boolean integral = true;
+        if (consume('.')) {
+            integral = false;
+            if (!digits()) {
+                throw error("Invalid number");
+            }
+        }
+        if (consume('e') || consume('E')) {
+            integral = false;
+            if (!consume('+')) {
+                consume('-');
+            }
+            if (!digits()) {
+                throw error("Invalid number");
+            }
+        }
+        String n = text.substring(start, pos);
+        if (!integral) {
+            return new BigDecimal(n);
+        }
+        BigInteger i = new BigInteger(n);
+        if (i.bitLength() < 32) {
+            return i.intValue();
+        } else if (i.bitLength() < 64) {
+            return i.longValue();
+        } else {
+            return i;
+        }
+    }
+
+    private boolean digits() {
+        int start = pos;
+        while (pos < text.length() && text.charAt(pos) >= '0' && text.charAt(pos) <= '9') {
+            pos++;
+        }
+        return pos > start;
+    }
+
+    private Object literal(String word, Object value) {
+        if (!text.startsWith(word, pos)) {
+            throw error("Unexpected character '" + text.charAt(pos) + "'");
+        }
+        pos += word.length();
+        return value;
+    }
+
+    private void whitespace() {
+        while (pos < text.length()) {
+            char c = text.charAt(pos);
+            if (c != ' ' && c != '\t' && c != '\n' && c != '\r') {
+                return;
+            }
+            pos++;
+        }
+    }
+
+    private boolean consume(char c) {
+        if (pos < text.length() && text.charAt(pos) == c) {
+            pos++;
+            return true;
+        }
+        return false;
+    }
+
+    private void expect(char c) {
+        if (!consume(c)) {
+            throw error("Expected '" + c + "'");
+        }
+    }
+
+    private IllegalArgumentException error(String message) {
+        int line = 1;
+        int column = 1;
+        for (int i = 0; i < pos && i < text.length(); i++) {
+            if (text.charAt(i) == '\n') {
+                line++;
+                column = 1;
+            } else {
+                column++;
+            }
+        }
+        return new IllegalArgumentException(message + " at line " + line + ", column " + column);
+    }
+}
@@ -0,0 +1,316 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.jenkinsci.plugins.workflow.steps;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.StringTokenizer;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.tools.ant.DirectoryScanner;
+import org.apache.tools.ant.types.selectors.SelectorUtils;
+import org.apache.tools.ant.types.selectors.TokenizedPath;
+import org.apache.tools.ant.types.selectors.TokenizedPattern;
+
+/**
+ * Finds files matching Ant-style patterns, like {@link hudson.Util#createFileSet(File, String, String)},
+ * but walking subdirectories in parallel.
+ * Patterns are tokenized once up front, and directories which no include pattern could reach,
+ * or whose whole contents are excluded, are never listed.
+ * Symbolic links are followed, except those leading back into a directory being scanned.
+ * Meant to be run on the agent.
+ */
+final class ParallelFileScanner {
+
+    /**
+     * Shared by all scans in this JVM, so that concurrent archive steps do not each start a set of threads.
+     * Scanning blocks on I/O, so the common pool is not used.
+     */
+    private static final class Pool {
+        static final ForkJoinPool INSTANCE = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Receives the {@code /}-separated relative path of each matching file.
+     * May be called concurrently from several threads.
+     */
+    interface Visitor {
+        void visit(@NonNull String path) throws IOException;
+
+        /**
+         * Receives the {@code /}-separated relative path of each directory about to be scanned.
+         */
+        default void visitDirectory(@NonNull String path) throws IOException {}
+
+        /**
+         * Receives the {@code /}-separated relative path of each matching entry which is skipped for its type:
+         * a directory already being scanned, reached again through a symbolic link cycle,
+         * or something other than a regular file or directory, such as a named pipe or a broken symbolic link.
+         */
+        default void visitSkipped(@NonNull String path, boolean directory) throws IOException {}
+    }
+
+    private final List<TokenizedPattern> includes;
+    private final List<TokenizedPattern> excludes;
+
+    /**
+     * @param includes comma-separated include patterns; all files if blank
+     * @param excludes comma-separated exclude patterns, if any
+     * @param useDefaultExcludes whether to also apply {@link DirectoryScanner#getDefaultExcludes}
+     */
+    ParallelFileScanner(@CheckForNull String includes, @CheckForNull String excludes, boolean useDefaultExcludes) {
+        List<String> in = split(includes);
+        if (in.isEmpty()) {
+            in.add(SelectorUtils.DEEP_TREE_MATCH);
+        }
+        List<String> ex = split(excludes);
+        if (useDefaultExcludes) {
+            ex.addAll(Arrays.asList(DirectoryScanner.getDefaultExcludes()));
+        }
+        this.includes = compile(in);
+        this.excludes = compile(ex);
+    }
+
+    private static List<String> split(@CheckForNull String patterns) {
+        List<String> r = new ArrayList<>();
+        if (patterns != null) {
+            StringTokenizer tokens = new StringTokenizer(patterns, ",");
+            while (tokens.hasMoreTokens()) {
+                String token = tokens.nextToken().trim();
+                if (!token.isEmpty()) {
+                    r.add(token);
+                }
+            }
+        }
+        return r;
+    }
+
+    /**
+     * Normalizes patterns as {@link DirectoryScanner} does: either separator is accepted,
+     * and a trailing separator stands for everything beneath.
+     */
+    private static List<TokenizedPattern> compile(List<String> patterns) {
+        List<TokenizedPattern> r = new ArrayList<>();
+        for (String pattern : patterns) {
+            String p = pattern.replace('/', File.separatorChar).replace('\\', File.separatorChar);
+            if (p.endsWith(File.separator)) {
+                p += SelectorUtils.DEEP_TREE_MATCH;
+            }
+            r.add(new TokenizedPattern(p));
+        }
+        return r;
+    }
+
+    /**
+     * Scans a directory.
+     * @return the number of matching files
+     */
+    int scan(@NonNull File basedir, @NonNull Visitor visitor) throws IOException {
+        if (!basedir.isDirectory()) {
+            return 0;
+        }
+        AtomicInteger count = new AtomicInteger();
+        try {
+            Path root = basedir.toPath();
+            Pool.INSTANCE.invoke(
+                    new ScanDir(root, null, null, new Ancestors(root.toRealPath(), null), visitor, count));
+        } catch (UncheckedIOException x) {
+            throw x.getCause();
+        }
+        return count.get();
+    }
+
+    /**
+     * Checks whether any file matches, stopping at the first.
+     * @return false also if the directory does not exist
+     */
+    boolean any(@NonNull File basedir) throws IOException {
+        try {
+            scan(basedir, path -> {
+                throw new Found();
+            });
+            return false;
+        } catch (Found x) {
+            return true;
+        }
+    }
+
+    /**
+     * Thrown to abandon a scan once a match is found.
+     */
+    private static final class Found extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        Found() {
+            super(null, null, false, false);
+        }
+    }
+
+    /**
+     * Checks a {@code /}-separated relative path against the patterns without touching the filesystem.
+     */
+    boolean matches(@NonNull String path) {
+        TokenizedPath tokenized = new TokenizedPath(path.replace('/', File.separatorChar));
+        return isIncluded(tokenized) && !isExcluded(tokenized);
+    }
+
+    private boolean isIncluded(TokenizedPath path) {
+        for (TokenizedPattern pattern : includes) {
+            if (pattern.matchPath(path, true)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isExcluded(TokenizedPath path) {
+        for (TokenizedPattern pattern : excludes) {
+            if (pattern.matchPath(path, true)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Whether some include pattern could match a file beneath this directory.
+     */
+    private boolean couldHoldIncluded(TokenizedPath dir) {
+        for (TokenizedPattern pattern : includes) {
+            if (pattern.matchStartOf(dir, true)
+                    && (pattern.containsPattern(SelectorUtils.DEEP_TREE_MATCH) || pattern.depth() > dir.depth())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Whether some exclude pattern of the form {@code something/**} matches everything beneath this directory.
+     */
+    private boolean contentsExcluded(TokenizedPath dir) {
+        for (TokenizedPattern pattern : excludes) {
+            if (pattern.endsWith(SelectorUtils.DEEP_TREE_MATCH)
+                    && pattern.withoutLastToken().matchPath(dir, true)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Real paths of the directories above the one being scanned, to detect symbolic link cycles.
+     */
+    private static final class Ancestors {
+        final Path real;
+        final @CheckForNull Ancestors parent;
+
+        Ancestors(Path real, @CheckForNull Ancestors parent) {
+            this.real = real;
+            this.parent = parent;
+        }
+
+        boolean contains(Path p) {
+            for (Ancestors a = this; a != null; a = a.parent) {
+                if (a.real.equals(p)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private final class ScanDir extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Path dir;
+        private final @CheckForNull TokenizedPath tokenized;
+        private final @CheckForNull String relative;
+        private final Ancestors ancestors;
+        private final Visitor visitor;
+        private final AtomicInteger count;
+
+        ScanDir(
+                Path dir,
+                @CheckForNull TokenizedPath tokenized,
+                @CheckForNull String relative,
+                Ancestors ancestors,
+                Visitor visitor,
+                AtomicInteger count) {
+            this.dir = dir;
+            this.tokenized = tokenized;
+            this.relative = relative;
+            this.ancestors = ancestors;
+            this.visitor = visitor;
+            this.count = count;
+        }
+
+        @Override
+        protected void compute() {
+            List<ScanDir> subdirs = new ArrayList<>();
+            try (DirectoryStream<Path> children = Files.newDirectoryStream(dir)) {
+                for (Path child : children) {
+                    String name = child.getFileName().toString();
+                    TokenizedPath path =
+                            tokenized == null ? new TokenizedPath(name) : new TokenizedPath(tokenized, name);
+                    String rel = relative == null ? name : relative + '/' + name;
+                    if (Files.isDirectory(child)) {
+                        if (couldHoldIncluded(path) && !contentsExcluded(path)) {
+                            Path real = Files.isSymbolicLink(child) ? child.toRealPath() : ancestors.real.resolve(name);
+                            if (!ancestors.contains(real)) {
+                                visitor.visitDirectory(rel);
+                                subdirs.add(new ScanDir(
+                                        child, path, rel, new Ancestors(real, ancestors), visitor, count));
+                            } else {
+                                visitor.visitSkipped(rel, true);
+                            }
+                        }
+                    } else if (isIncluded(path) && !isExcluded(path)) {
+                        if (Files.isRegularFile(child)) {
+                            visitor.visit(rel);
+                            count.incrementAndGet();
+                        } else {
+                            visitor.visitSkipped(rel, false);
+                        }
+                    }
+                }
+            } catch (IOException x) {
+                throw new UncheckedIOException(x);
+            }
+            invokeAll(subdirs);
+        }
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.jenkinsci.plugins.workflow.steps;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.Extension;
+import hudson.model.Queue;
+import hudson.model.Run;
+import hudson.model.listeners.RunListener;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import jenkins.util.SystemProperties;
+import org.jenkinsci.plugins.workflow.flow.FlowExecution;
+import org.jenkinsci.plugins.workflow.flow.FlowExecutionListener;
+
+/**
+ * Contents of files read by {@code readFile(cache: true)} during a build,
+ * keyed by build, agent, path, read options, size, and modification time.
+ * Least recently used entries, from whichever build, are evicted once all entries together exceed {@link #MAX_CHARS}.
+ * A build's entries are discarded when it completes, after logging how useful they were,
+ * or when it is resumed or finalized without having completed normally.
+ */
+final class ReadFileCache {
+
+    private static final Logger LOGGER = Logger.getLogger(ReadFileCache.class.getName());
+
+    /** Maximum total length of cached contents, across all builds. */
+    static final long MAX_CHARS = SystemProperties.getLong(ReadFileCache.class.getName() + ".maxChars", 8_000_000L);
+
+    /** {@link Run#getExternalizableId} and key → contents, least recently used first */
+    private static final Map<String, String> contents = new LinkedHashMap<>(16, 0.75f, true);
+
+    /** {@link Run#getExternalizableId} → hits and misses */
+    private static final Map<String, int[]> stats = new HashMap<>();
+
+    private static long chars;
+
+    private static String entry(Run<?, ?> build, String key) {
+        return build.getExternalizableId() + '\0' + key;
+    }
+
+    /**
+     * Looks up cached contents, counting a hit or miss.
+     */
+    static synchronized @CheckForNull String get(Run<?, ?> build, String key) {
+        String content = contents.get(entry(build, key));
+        stats.computeIfAbsent(build.getExternalizableId(), k -> new int[2])[content != null ? 0 : 1]++;
+        return content;
+    }
+
+    static synchronized void put(Run<?, ?> build, String key, String content) {
+        if (content.length() > MAX_CHARS) {
+            return;
+        }
+        String old = contents.put(entry(build, key), content);
+        chars += content.length() - (old != null ? old.length() : 0);
+        Iterator<String> eldest = contents.values().iterator();
+        while (chars > MAX_CHARS && eldest.hasNext()) {
+            chars -= eldest.next().length();
+            eldest.remove();
+        }
+    }
+
+    /**
+     * Drops all entries of a build.
+     * @return its hits and misses, if it read anything with the cache
+     */
+    private static synchronized @CheckForNull int[] discard(String id) {
+        String prefix = id + '\0';
+        Iterator<Map.Entry<String, String>> it = contents.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, String> e = it.next();
+            if (e.getKey().startsWith(prefix)) {
+                chars -= e.getValue().length();
+                it.remove();
+            }
+        }
+        return stats.remove(id);
+    }
+
+    /** For tests. */
+    static synchronized int size() {
+        return contents.size() + stats.size();
+    }
+
+    @Extension
+    public static final class Listener extends FlowExecutionListener {
+
+        @Override
+        public void onCompleted(FlowExecution execution) {
+            try {
+                Queue.Executable executable = execution.getOwner().getExecutable();
+                if (executable instanceof Run) {
+                    int[] counts = discard(((Run<?, ?>) executable).getExternalizableId());
+                    if (counts != null) {
+                        execution
+                                .getOwner()
+                                .getListener()
+                                .getLogger()
+                                .println("readFile cache: " + counts[0] + " hit(s), " + counts[1] + " miss(es)");
+                    }
+                }
+            } catch (IOException x) {
+                LOGGER.log(Level.WARNING, null, x);
+            }
+        }
+
+        @Override
+        public void onResumed(FlowExecution execution) {
+            try {
+                Queue.Executable executable = execution.getOwner().getExecutable();
+                if (executable instanceof Run) {
+                    discard(((Run<?, ?>) executable).getExternalizableId());
+                }
+            } catch (IOException x) {
+                LOGGER.log(Level.WARNING, null, x);
+            }
+        }
+    }
+
+    /**
+     * Catches builds which end without their execution reporting completion, such as a hard kill.
+     */
+    @Extension
+    public static final class Cleanup extends RunListener<Run<?, ?>> {
+
+        @Override
+        public void onFinalized(@NonNull Run<?, ?> run) {
+            discard(run.getExternalizableId());
+        }
+    }
+
+    private ReadFileCache() {}
+}
@@ -24,14 +24,40 @@
 
 package org.jenkinsci.plugins.workflow.steps;
 
+import edu.umd.cs.findbugs.annotations.CheckForNull;
 import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.AbortException;
 import hudson.Extension;
 import hudson.FilePath;
 import hudson.Util;
+import hudson.model.Run;
+import hudson.remoting.Channel;
+import hudson.remoting.VirtualChannel;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
 import java.util.Base64;
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import jenkins.MasterToSlaveFileCallable;
 import org.apache.commons.io.IOUtils;
 import org.kohsuke.stapler.DataBoundConstructor;
 import org.kohsuke.stapler.DataBoundSetter;
@@ -40,8 +66,21 @@ public final class ReadFileStep extends Step {
 
     /*package*/ static final String BASE64_ENCODING = "Base64";
 
+    private static final String JSON_FORMAT = "json";
+    private static final String PROPERTIES_FORMAT = "properties";
+
+    private static final Pattern LINES = Pattern.compile("(\\d+)-(\\d*)");
+
     private final String file;
     private String encoding;
+    private Long offset;
+    private Long length;
+    private Integer head;
+    private Integer tail;
+    private String lines;
+    private boolean cache;
+    private String format;
+    private String select;
 
     @DataBoundConstructor
     public ReadFileStep(String file) {
@@ -75,6 +114,156 @@ public final class ReadFileStep extends Step {
         this.encoding = Util.fixEmptyAndTrim(encoding);
     }
 
+    public Long getOffset() {
+        return offset;
+    }
+
+    /**
+     * Read only from this byte offset onwards.
+     * The file is read on the agent, so that only the requested part is sent to the controller.
+     */
+    @DataBoundSetter
+    public void setOffset(Long offset) {
+        this.offset = offset;
+    }
+
+    public Long getLength() {
+        return length;
+    }
+
+    /**
+     * Read at most this many bytes.
+     */
+    @DataBoundSetter
+    public void setLength(Long length) {
+        this.length = length;
+    }
+
+    public Integer getHead() {
+        return head;
+    }
+
+    /**
+     * Read only this many lines from the start of the file.
+     */
+    @DataBoundSetter
+    public void setHead(Integer head) {
+        this.head = head;
+    }
+
+    public Integer getTail() {
+        return tail;
+    }
+
+    /**
+     * Read only this many lines from the end of the file.
+     */
+    @DataBoundSetter
+    public void setTail(Integer tail) {
+        this.tail = tail;
+    }
+
+    public String getLines() {
+        return lines;
+    }
+
+    /**
+     * Read only a range of lines, such as {@code 10-20}, counting from 1 and including both ends.
+     * The end may be omitted to read to the end of the file.
+     */
+    @DataBoundSetter
+    public void setLines(String lines) {
+        lines = Util.fixEmptyAndTrim(lines);
+        if (lines != null) {
+            Matcher m = LINES.matcher(lines);
+            if (!m.matches()
+                    || Long.parseLong(m.group(1)) == 0
+                    || !m.group(2).isEmpty() && Long.parseLong(m.group(2)) < Long.parseLong(m.group(1))) {
+                throw new IllegalArgumentException("Expected a line range like 10-20, not " + lines);
+            }
+        }
+        this.lines = lines;
+    }
+
+    public boolean isCache() {
+        return cache;
+    }
+
+    /**
+     * Reuse the contents from an earlier read of the same file with the same options in this build,
+     * if the file's size and modification time are unchanged.
+     */
+    @DataBoundSetter
+    public void setCache(boolean cache) {
+        this.cache = cache;
+    }
+
+    public String getFormat() {
+        return format;
+    }
+
+    /**
+     * Parse the file on the agent and return its structure rather than its text:
+     * {@code json} for nested maps and lists, or {@code properties} for a map of strings.
+     */
+    @DataBoundSetter
+    public void setFormat(String format) {
+        format = Util.fixEmptyAndTrim(format);
+        if (format != null && !format.equals(JSON_FORMAT) && !format.equals(PROPERTIES_FORMAT)) {
+            throw new IllegalArgumentException("Unsupported format " + format + "; use json or properties");
+        }
+        this.format = format;
+    }
+
+    public String getSelect() {
+        return select;
+    }
+
+    /**
+     * When parsing, return only the value at this path.
+     * For JSON, a dot-separated list of keys and list indices, such as {@code dependencies.0.version};
+     * for properties, a single key.
+     */
+    @DataBoundSetter
+    public void setSelect(String select) {
+        this.select = Util.fixEmptyAndTrim(select);
+    }
+
+    /**
+     * Checks that at most one way of selecting part of the file was requested, and that it fits the other options.
+     * @return true if only part of the file should be read
+     */
+    private boolean checkOptions() throws AbortException {
+        int selectors = 0;
+        if (offset != null || length != null) {
+            selectors++;
+        }
+        for (Object selector : Arrays.asList(head, tail, lines)) {
+            if (selector != null) {
+                selectors++;
+            }
+        }
+        if (selectors > 1) {
+            throw new AbortException("Specify only one of offset/length, head, tail, or lines");
+        }
+        if (selectors == 1 && offset == null && length == null && BASE64_ENCODING.equals(encoding)) {
+            throw new AbortException("Base64 encoding may only be combined with offset/length");
+        }
+        if (format != null && (selectors > 0 || BASE64_ENCODING.equals(encoding))) {
+            throw new AbortException("format may not be combined with partial reads or Base64");
+        }
+        if (format == null && select != null) {
+            throw new AbortException("select requires a format");
+        }
+        if ((offset != null && offset < 0)
+                || (length != null && length < 0)
+                || (head != null && head < 0)
+                || (tail != null && tail < 0)) {
+            throw new AbortException("Negative offset, length, head, or tail");
+        }
+        return selectors == 1;
+    }
+
     @Override
     public StepExecution start(StepContext context) throws Exception {
         return new Execution(this, context);
@@ -100,7 +289,7 @@ public final class ReadFileStep extends Step {
         }
     }
 
-    public static final class Execution extends SynchronousNonBlockingStepExecution<String> {
+    public static final class Execution extends SynchronousNonBlockingStepExecution<Object> {
 
         private final transient ReadFileStep step;
 
@@ -110,17 +299,310 @@ public final class ReadFileStep extends Step {
         }
 
         @Override
-        protected String run() throws Exception {
-            try (InputStream is =
-                    getContext().get(FilePath.class).child(step.file).read()) {
-                if (BASE64_ENCODING.equals(step.encoding)) {
-                    return Base64.getEncoder().encodeToString(IOUtils.toByteArray(is));
-                } else {
-                    return IOUtils.toString(is, step.encoding); // The platform default is used if encoding is null.
+        protected Object run() throws Exception {
+            boolean partial = step.checkOptions();
+            FilePath f = getContext().get(FilePath.class).child(step.file);
+            if (step.format != null) {
+                return f.act(new Parse(step));
+            }
+            Run<?, ?> build = getContext().get(Run.class);
+            if (step.cache && build != null) {
+                long[] stat = f.act(new Stat());
+                if (stat != null) {
+                    VirtualChannel channel = f.getChannel();
+                    String key = String.join(
+                            "\0",
+                            channel instanceof Channel ? ((Channel) channel).getName() : "",
+                            f.getRemote(),
+                            Arrays.asList(step.encoding, step.offset, step.length, step.head, step.tail, step.lines)
+                                    .toString(),
+                            Long.toString(stat[0]),
+                            Long.toString(stat[1]));
+                    String content = ReadFileCache.get(build, key);
+                    if (content == null) {
+                        content = read(f, partial);
+                        ReadFileCache.put(build, key, content);
+                    }
+                    return content;
                 }
             }
+            return read(f, partial);
         }
 
+        private String read(FilePath f, boolean partial) throws Exception {
+            if (partial || BASE64_ENCODING.equals(step.encoding)) {
+                // Base64 is encoded as the file is read on the agent, rather than buffering the bytes here.
+                return f.act(new ReadPart(step));
+            }
+            try (InputStream is = f.read()) {
+                return IOUtils.toString(is, step.encoding); // The platform default is used if encoding is null.
+            }
+        }
+
+        private static final long serialVersionUID = 1L;
+    }
+
+    /**
+     * Parses a file on the agent into plain maps, lists, and scalars.
+     */
+    private static final class Parse extends MasterToSlaveFileCallable<Object> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final String format;
+        private final String charset;
+        private final @CheckForNull String select;
+
+        Parse(ReadFileStep step) {
+            format = step.format;
+            charset = (step.encoding != null ? Charset.forName(step.encoding) : Charset.defaultCharset()).name();
+            select = step.select;
+        }
+
+        @Override
+        public Object invoke(File f, VirtualChannel channel) throws IOException, InterruptedException {
+            String text = new String(Files.readAllBytes(f.toPath()), charset);
+            if (format.equals(PROPERTIES_FORMAT)) {
+                Properties properties = new Properties();
+                properties.load(new StringReader(text));
+                if (select != null) {
+                    return properties.getProperty(select);
+                }
+                Map<String, String> r = new TreeMap<>();
+                for (String key : properties.stringPropertyNames()) {
+                    r.put(key, properties.getProperty(key));
+                }
+                return r;
+            }
+            Object value;
+            try {
+                value = JsonParser.parse(text);
+            } catch (IllegalArgumentException x) {
+                throw new AbortException("Could not parse " + f + " as JSON: " + x.getMessage());
+            }
+            if (select != null) {
+                for (String key : select.split("[.]")) {
+                    if (value instanceof Map) {
+                        value = ((Map<?, ?>) value).get(key);
+                    } else if (value instanceof List && key.matches("\\d+")) {
+                        List<?> list = (List<?>) value;
+                        int index = Integer.parseInt(key);
+                        value = index < list.size() ? list.get(index) : null;
+                    } else {
+                        return null;
+                    }
+                }
+            }
+            return value;
+        }
+    }
+
+    /**
+     * Gets the size and modification time of a file, or null if it is not a regular file.
+     */
+    private static final class Stat extends MasterToSlaveFileCallable<long[]> {
+
         private static final long serialVersionUID = 1L;
+
+        @Override
+        public long[] invoke(File f, VirtualChannel channel) {
+            return f.isFile() ? new long[] {f.length(), f.lastModified()} : null;
+        }
+    }
+
+    /**
+     * Reads a byte or line range of a file on the agent.
+     */
+    private static final class ReadPart extends MasterToSlaveFileCallable<String> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final @CheckForNull String charset;
+        private final long offset;
+        private final long length;
+        private final long firstLine;
+        private final long lastLine;
+        private final int tail;
+
+        ReadPart(ReadFileStep step) {
+            // Resolve the platform default encoding on the controller, as a whole-file read would.
+            charset = BASE64_ENCODING.equals(step.encoding)
+                    ? null
+                    : (step.encoding != null ? Charset.forName(step.encoding) : Charset.defaultCharset()).name();
+            offset = step.offset != null ? step.offset : 0;
+            length = step.length != null ? step.length : Long.MAX_VALUE;
+            if (step.head != null) {
+                firstLine = 1;
+                lastLine = step.head;
+            } else if (step.lines != null) {
+                Matcher m = LINES.matcher(step.lines);
+                if (!m.matches()) {
+                    throw new IllegalStateException(step.lines);
+                }
+                firstLine = Long.parseLong(m.group(1));
+                lastLine = m.group(2).isEmpty() ? Long.MAX_VALUE : Long.parseLong(m.group(2));
+            } else {
+                firstLine = 0;
+                lastLine = 0;
+            }
+            tail = step.tail != null ? step.tail : -1;
+        }
+
+        @Override
+        public String invoke(File f, VirtualChannel channel) throws IOException, InterruptedException {
+            if (tail >= 0) {
+                return tail(f);
+            } else if (firstLine > 0) {
+                try (Reader r = new InputStreamReader(Files.newInputStream(f.toPath()), charset)) {
+                    return lines(r, firstLine, lastLine);
+                }
+            } else {
+                try (FileChannel ch = FileChannel.open(f.toPath(), StandardOpenOption.READ)) {
+                    return decode(ch, offset, Math.min(length, Math.max(0, ch.size() - offset)));
+                }
+            }
+        }
+
+        /**
+         * Finds the start of the last lines by scanning backwards for newline bytes,
+         * which is only possible in charsets where a newline is always the single byte {@code 0x0A}.
+         * Otherwise counts lines in a first pass.
+         */
+        private String tail(File f) throws IOException {
+            if (tail == 0) {
+                return "";
+            }
+            if (!Arrays.equals("\n".getBytes(charset), new byte[] {'\n'})) {
+                long count;
+                try (Reader r = new InputStreamReader(Files.newInputStream(f.toPath()), charset)) {
+                    count = countLines(r);
+                }
+                try (Reader r = new InputStreamReader(Files.newInputStream(f.toPath()), charset)) {
+                    return lines(r, Math.max(1, count - tail + 1), Long.MAX_VALUE);
+                }
+            }
+            try (FileChannel ch = FileChannel.open(f.toPath(), StandardOpenOption.READ)) {
+                long size = ch.size();
+                long pos = size;
+                long start = 0;
+                int newlines = 0;
+                ByteBuffer buf = ByteBuffer.allocate(8192);
+                scan:
+                while (pos > 0) {
+                    int n = (int) Math.min(buf.capacity(), pos);
+                    pos -= n;
+                    buf.clear().limit(n);
+                    while (buf.hasRemaining()) {
+                        if (ch.read(buf, pos + buf.position()) < 0) {
+                            throw new IOException(f + " was truncated while reading");
+                        }
+                    }
+                    for (int i = n - 1; i >= 0; i--) {
+                        // a newline at the very end terminates the last line rather than starting another
+                        if (buf.get(i) == '\n' && pos + i != size - 1 && ++newlines == tail) {
+                            start = pos + i + 1;
+                            break scan;
+                        }
+                    }
+                }
+                return decode(ch, start, size - start);
+            }
+        }
+
+        private String decode(FileChannel ch, long start, long count) throws IOException {
+            if (charset == null) {
+                return base64(ch, start, count);
+            }
+            if (count > Integer.MAX_VALUE - 8) {
+                throw new IOException("Cannot read " + count + " bytes into a string");
+            }
+            ByteBuffer buf = ByteBuffer.allocate((int) count);
+            while (buf.hasRemaining()) {
+                if (ch.read(buf, start + buf.position()) < 0) {
+                    break;
+                }
+            }
+            return new String(buf.array(), 0, buf.position(), charset);
+        }
+
+        /**
+         * Encodes bytes as they are read into a byte array of exactly the encoded size,
+         * from which the result is created without any further intermediate copy.
+         */
+        private static String base64(FileChannel ch, long start, long count) throws IOException {
+            long encoded = (count + 2) / 3 * 4;
+            if (encoded > Integer.MAX_VALUE - 8) {
+                throw new IOException("Cannot read " + count + " bytes into a string");
+            }
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream((int) encoded);
+            try (OutputStream out = Base64.getEncoder().wrap(bytes)) {
+                ByteBuffer buf = ByteBuffer.allocate(8192);
+                long pos = start;
+                long remaining = count;
+                while (remaining > 0) {
+                    buf.clear().limit((int) Math.min(buf.capacity(), remaining));
+                    int n = ch.read(buf, pos);
+                    if (n < 0) {
+                        break;
+                    }
+                    out.write(buf.array(), 0, n);
+                    pos += n;
+                    remaining -= n;
+                }
+            }
+            return bytes.toString(StandardCharsets.US_ASCII);
+        }
+
+        /**
+         * Counts lines; a final line without a terminator counts too.
+         */
+        private static long countLines(Reader r) throws IOException {
+            long count = 0;
+            boolean partial = false;
+            char[] buf = new char[8192];
+            int n;
+            while ((n = r.read(buf)) != -1) {
+                for (int i = 0; i < n; i++) {
+                    if (buf[i] == '\n') {
+                        count++;
+                        partial = false;
+                    } else {
+                        partial = true;
+                    }
+                }
+            }
+            return partial ? count + 1 : count;
+        }
+
+        /**
+         * Collects a range of lines, keeping their terminators.
+         */
+        private static String lines(Reader r, long first, long last) throws IOException {
+            if (last < first) {
+                return "";
+            }
+            StringBuilder sb = new StringBuilder();
+            long line = 1;
+            char[] buf = new char[8192];
+            int n;
+            while ((n = r.read(buf)) != -1) {
+                int from = 0;
+                for (int i = 0; i < n; i++) {
+                    if (buf[i] == '\n') {
+                        if (line >= first) {
+                            sb.append(buf, from, i + 1 - from);
+                        }
+                        from = i + 1;
+                        if (++line > last) {
+                            return sb.toString();
+                        }
+                    }
+                }
+                if (line >= first && from < n) {
+                    sb.append(buf, from, n - from);
+                }
+            }
+            return sb.toString();
+        }
     }
 }
@@ -0,0 +1,194 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.jenkinsci.plugins.workflow.steps;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.AbortException;
+import hudson.Extension;
+import hudson.FilePath;
+import hudson.Util;
+import hudson.remoting.VirtualChannel;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListSet;
+import jenkins.MasterToSlaveFileCallable;
+import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.DataBoundSetter;
+
+/**
+ * Reads all files matching a pattern in one call to the agent.
+ */
+public final class ReadFilesStep extends Step {
+
+    private final String glob;
+    private String excludes;
+    private String encoding;
+    private long maxBytes;
+
+    @DataBoundConstructor
+    public ReadFilesStep(String glob) {
+        this.glob = glob;
+    }
+
+    public String getGlob() {
+        return glob;
+    }
+
+    public String getExcludes() {
+        return excludes;
+    }
+
+    @DataBoundSetter
+    public void setExcludes(String excludes) {
+        this.excludes = Util.fixEmptyAndTrim(excludes);
+    }
+
+    public String getEncoding() {
+        return encoding;
+    }
+
+    /**
+     * Set the encoding to be used when reading the files. If the specified value is null or
+     * whitespace-only, then the platform default encoding of the controller will be used. Binary
+     * files can be loaded as Base64-encoded strings by specifying {@code Base64} as the encoding.
+     */
+    @DataBoundSetter
+    public void setEncoding(String encoding) {
+        this.encoding = Util.fixEmptyAndTrim(encoding);
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * Fail rather than read more than this many bytes in total; 0 for no limit.
+     */
+    @DataBoundSetter
+    public void setMaxBytes(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    @Override
+    public StepExecution start(StepContext context) throws Exception {
+        return new Execution(this, context);
+    }
+
+    @Extension
+    public static final class DescriptorImpl extends StepDescriptor {
+
+        @Override
+        public String getFunctionName() {
+            return "readFiles";
+        }
+
+        @NonNull
+        @Override
+        public String getDisplayName() {
+            return "Read files matching a pattern from workspace";
+        }
+
+        @Override
+        public Set<? extends Class<?>> getRequiredContext() {
+            return Collections.singleton(FilePath.class);
+        }
+    }
+
+    public static final class Execution extends SynchronousNonBlockingStepExecution<Map<String, String>> {
+
+        private final transient ReadFilesStep step;
+
+        Execution(ReadFilesStep step, StepContext context) {
+            super(context);
+            this.step = step;
+        }
+
+        @Override
+        protected Map<String, String> run() throws Exception {
+            if (step.maxBytes < 0) {
+                throw new AbortException("maxBytes may not be negative");
+            }
+            // Resolve the platform default encoding on the controller, as readFile does.
+            String charset = ReadFileStep.BASE64_ENCODING.equals(step.encoding)
+                    ? null
+                    : (step.encoding != null ? Charset.forName(step.encoding) : Charset.defaultCharset()).name();
+            return getContext()
+                    .get(FilePath.class)
+                    .act(new ReadAll(
+                            step.glob, step.excludes, charset, step.maxBytes > 0 ? step.maxBytes : Long.MAX_VALUE));
+        }
+
+        private static final long serialVersionUID = 1L;
+    }
+
+    private static final class ReadAll extends MasterToSlaveFileCallable<Map<String, String>> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final String glob;
+        private final @CheckForNull String excludes;
+        /** null for Base64 */
+        private final @CheckForNull String charset;
+
+        private final long maxBytes;
+
+        ReadAll(String glob, @CheckForNull String excludes, @CheckForNull String charset, long maxBytes) {
+            this.glob = glob;
+            this.excludes = excludes;
+            this.charset = charset;
+            this.maxBytes = maxBytes;
+        }
+
+        @Override
+        public Map<String, String> invoke(File dir, VirtualChannel channel) throws IOException, InterruptedException {
+            Set<String> paths = new ConcurrentSkipListSet<>();
+            new ParallelFileScanner(glob, excludes, true).scan(dir, paths::add);
+            // Check sizes before reading anything, so as not to load a huge file only to fail.
+            long total = 0;
+            for (String path : paths) {
+                total += new File(dir, path).length();
+                if (total > maxBytes) {
+                    throw new AbortException(
+                            "Files matching " + glob + " exceed the limit of " + maxBytes + " bytes at " + path);
+                }
+            }
+            Map<String, String> contents = new LinkedHashMap<>();
+            for (String path : paths) {
+                byte[] bytes = Files.readAllBytes(new File(dir, path).toPath());
+                contents.put(
+                        path, charset == null ? Base64.getEncoder().encodeToString(bytes) : new String(bytes, charset));
+            }
+            return contents;
+        }
+    }
+}
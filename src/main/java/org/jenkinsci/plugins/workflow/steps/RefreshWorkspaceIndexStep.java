@@ -0,0 +1,91 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.jenkinsci.plugins.workflow.steps;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.AbortException;
+import hudson.Extension;
+import hudson.FilePath;
+import hudson.model.TaskListener;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import org.kohsuke.stapler.DataBoundConstructor;
+
+/**
+ * Rescans the directory indexed by the enclosing {@link WithWorkspaceIndexStep}.
+ */
+public final class RefreshWorkspaceIndexStep extends Step {
+
+    @DataBoundConstructor
+    public RefreshWorkspaceIndexStep() {}
+
+    @Override
+    public StepExecution start(StepContext context) throws Exception {
+        return new Execution(context);
+    }
+
+    @Extension
+    public static final class DescriptorImpl extends StepDescriptor {
+
+        @Override
+        public String getFunctionName() {
+            return "refreshWorkspaceIndex";
+        }
+
+        @NonNull
+        @Override
+        public String getDisplayName() {
+            return "Rescan the workspace index";
+        }
+
+        @Override
+        public Set<? extends Class<?>> getRequiredContext() {
+            Set<Class<?>> context = new HashSet<>();
+            Collections.addAll(context, FilePath.class, TaskListener.class);
+            return Collections.unmodifiableSet(context);
+        }
+    }
+
+    public static final class Execution extends SynchronousNonBlockingStepExecution<Void> {
+
+        Execution(StepContext context) {
+            super(context);
+        }
+
+        @Override
+        protected Void run() throws Exception {
+            WorkspaceIndex index = getContext().get(WorkspaceIndex.class);
+            if (index == null) {
+                throw new AbortException("refreshWorkspaceIndex may only be used inside withWorkspaceIndex");
+            }
+            String summary = index.refresh(getContext().get(FilePath.class).getChannel());
+            getContext().get(TaskListener.class).getLogger().println(summary);
+            return null;
+        }
+
+        private static final long serialVersionUID = 1L;
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.jenkinsci.plugins.workflow.steps;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.model.InvisibleAction;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.jenkinsci.plugins.workflow.actions.PersistentAction;
+import org.jenkinsci.plugins.workflow.graph.FlowNode;
+import org.kohsuke.stapler.export.Exported;
+import org.kohsuke.stapler.export.ExportedBean;
+
+/**
+ * Counts and timings recorded on the {@link FlowNode} of a step which moves files around,
+ * such as {@code stash} or {@code unarchive}.
+ * Keys are free-form; sizes are in bytes and durations in milliseconds.
+ */
+@ExportedBean
+public class TransferStatisticsAction extends InvisibleAction implements PersistentAction {
+
+    private final Map<String, Long> metrics = new LinkedHashMap<>();
+
+    @Exported
+    public @NonNull synchronized Map<String, Long> getMetrics() {
+        return Collections.unmodifiableMap(new LinkedHashMap<>(metrics));
+    }
+
+    /**
+     * Adds metrics to the action on the given node, creating it if necessary.
+     */
+    public static void record(@NonNull FlowNode node, @NonNull Map<String, Long> metrics) throws IOException {
+        TransferStatisticsAction action = node.getPersistentAction(TransferStatisticsAction.class);
+        if (action == null) {
+            action = new TransferStatisticsAction();
+            synchronized (action) {
+                action.metrics.putAll(metrics);
+            }
+            node.addAction(action);
+        } else {
+            synchronized (action) {
+                action.metrics.putAll(metrics);
+            }
+            node.save();
+        }
+    }
+}
@@ -0,0 +1,250 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.jenkinsci.plugins.workflow.steps;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import hudson.Extension;
+import hudson.FilePath;
+import hudson.Util;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.Objects;
+import java.util.Set;
+import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.DataBoundSetter;
+
+/**
+ * Buffers {@code writeFile(append: true)} calls for one file within a block,
+ * sending the text to the agent in larger chunks.
+ * Blocks may be nested, each buffering its own file.
+ * Other steps within the block are not guaranteed to see the buffered text in the file;
+ * it is only complete once the block has ended.
+ */
+public final class WithFileWriterStep extends Step {
+
+    private final String file;
+    private String encoding;
+    private boolean append;
+
+    @DataBoundConstructor
+    public WithFileWriterStep(String file) {
+        this.file = file;
+    }
+
+    public String getFile() {
+        return file;
+    }
+
+    public String getEncoding() {
+        return encoding;
+    }
+
+    /**
+     * Set the encoding to be used when writing the file. If the specified value is null or
+     * whitespace-only, then the platform default encoding will be used.
+     * Appends using a different encoding are written directly rather than buffered.
+     */
+    @DataBoundSetter
+    public void setEncoding(String encoding) {
+        this.encoding = Util.fixEmptyAndTrim(encoding);
+    }
+
+    public boolean isAppend() {
+        return append;
+    }
+
+    /**
+     * Keep any existing contents of the file rather than truncating it at the start of the block.
+     */
+    @DataBoundSetter
+    public void setAppend(boolean append) {
+        this.append = append;
+    }
+
+    @Override
+    public StepExecution start(StepContext context) throws Exception {
+        return new Execution(this, context);
+    }
+
+    @Extension
+    public static final class DescriptorImpl extends StepDescriptor {
+
+        @Override
+        public String getFunctionName() {
+            return "withFileWriter";
+        }
+
+        @Override
+        public boolean takesImplicitBlockArgument() {
+            return true;
+        }
+
+        @NonNull
+        @Override
+        public String getDisplayName() {
+            return "Buffer appends to a file in workspace";
+        }
+
+        @Override
+        public Set<? extends Class<?>> getRequiredContext() {
+            return Collections.singleton(FilePath.class);
+        }
+    }
+
+    /**
+     * Text appended to the file but not yet written, kept small enough to be saved with the program.
+     */
+    public static final class Buffer implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        /** Number of buffered characters at which they are written out. */
+        static final int FLUSH_CHARS = 64 * 1024;
+
+        private final String remote;
+        private final @CheckForNull String encoding;
+        /** buffer of the enclosing block, if any */
+        private final @CheckForNull Buffer outer;
+
+        private final StringBuilder pending = new StringBuilder();
+
+        Buffer(String remote, @CheckForNull String encoding, @CheckForNull Buffer outer) {
+            this.remote = remote;
+            this.encoding = encoding;
+            this.outer = outer;
+        }
+
+        /**
+         * Finds the buffer of the innermost block for a given file, among this one and those enclosing it.
+         */
+        @CheckForNull
+        Buffer find(FilePath file) {
+            for (Buffer b = this; b != null; b = b.outer) {
+                if (file.getRemote().equals(b.remote)) {
+                    return b;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Buffers text to append to the file, writing it out if enough has accumulated.
+         * @return false if this buffer is for some other encoding, and the caller should write directly
+         */
+        synchronized boolean append(FilePath file, String text, @CheckForNull String encoding)
+                throws IOException, InterruptedException {
+            if (!Objects.equals(encoding, this.encoding) || ReadFileStep.BASE64_ENCODING.equals(encoding)) {
+                // keep earlier text ahead of what the caller is about to write
+                flush(file);
+                return false;
+            }
+            pending.append(text);
+            if (pending.length() >= FLUSH_CHARS) {
+                flush(file);
+            }
+            return true;
+        }
+
+        /**
+         * Drops any buffered text, once the file has been overwritten.
+         */
+        synchronized void discard() {
+            pending.setLength(0);
+            pending.trimToSize();
+        }
+
+        /**
+         * Writes out any buffered text.
+         * @param file the file, or anything on the same agent
+         */
+        synchronized void flush(FilePath file) throws IOException, InterruptedException {
+            if (pending.length() == 0) {
+                return;
+            }
+            FilePath target = new FilePath(file.getChannel(), remote);
+            target.act(new WriteFileStep.Write(target, pending.toString(), encoding, false, false, true));
+            pending.setLength(0);
+            pending.trimToSize();
+        }
+    }
+
+    public static final class Execution extends GeneralNonBlockingStepExecution {
+
+        private static final long serialVersionUID = 1L;
+
+        @SuppressFBWarnings(value = "SE_TRANSIENT_FIELD_NOT_RESTORED", justification = "Only used when starting.")
+        private final transient WithFileWriterStep step;
+
+        Execution(WithFileWriterStep step, StepContext context) {
+            super(context);
+            this.step = step;
+        }
+
+        @Override
+        public boolean start() throws Exception {
+            run(this::doStart);
+            return false;
+        }
+
+        private void doStart() throws Exception {
+            FilePath file = getContext().get(FilePath.class).child(step.file);
+            Buffer outer = getContext().get(Buffer.class);
+            Buffer same = outer != null ? outer.find(file) : null;
+            if (!step.append) {
+                file.act(new WriteFileStep.Write(file, "", step.encoding, false, false, false));
+                if (same != null) {
+                    same.discard();
+                }
+            } else if (same != null) {
+                same.flush(file);
+            }
+            Buffer buffer = new Buffer(file.getRemote(), step.encoding, outer);
+            getContext()
+                    .newBodyInvoker()
+                    .withContext(buffer)
+                    .withCallback(new Callback(buffer))
+                    .start();
+        }
+
+        private final class Callback extends TailCall {
+
+            private static final long serialVersionUID = 1L;
+
+            private final Buffer buffer;
+
+            Callback(Buffer buffer) {
+                this.buffer = buffer;
+            }
+
+            @Override
+            protected void finished(StepContext context) throws Exception {
+                buffer.flush(context.get(FilePath.class));
+            }
+        }
+    }
+}
@@ -0,0 +1,253 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.jenkinsci.plugins.workflow.steps;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.FilePath;
+import hudson.Functions;
+import hudson.remoting.VirtualChannel;
+import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import jenkins.MasterToSlaveFileCallable;
+
+/**
+ * Paths, sizes, and modification times of everything in a directory, captured by {@link WithWorkspaceIndexStep}
+ * so that steps such as {@code fileExists} can answer from the controller without contacting the agent.
+ * Only as current as the last {@link #refresh}.
+ * Not saved with the build, so after a restart queries go to the agent until the next refresh.
+ */
+public final class WorkspaceIndex implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String root;
+
+    private transient volatile @CheckForNull Snapshot snapshot;
+
+    WorkspaceIndex(@NonNull String root) {
+        this.root = root;
+    }
+
+    /**
+     * Scans the indexed directory again.
+     * @param channel the agent on which the directory lives
+     * @return a summary of the index and of what changed since the last scan, if known
+     */
+    String refresh(VirtualChannel channel) throws IOException, InterruptedException {
+        FilePath dir = new FilePath(channel, root);
+        Snapshot s = dir.act(new Capture());
+        s.channel = channel;
+        Snapshot old = snapshot;
+        snapshot = s;
+        int files = 0;
+        int others = 0;
+        long bytes = 0;
+        for (long size : s.sizes) {
+            if (size >= 0) {
+                files++;
+                bytes += size;
+            } else if (size == Snapshot.OTHER) {
+                others++;
+            }
+        }
+        String summary = "Indexed " + files + " file(s) (" + Functions.humanReadableByteSize(bytes) + ")"
+                + (others > 0 ? ", " : " and ") + (s.paths.length - files - others) + " director(ies)"
+                + (others > 0 ? " and " + others + " other entr(ies)" : "");
+        return old != null ? summary + "; " + changes(old, s) : summary;
+    }
+
+    /**
+     * Compares two snapshots, merging their sorted paths.
+     */
+    private static String changes(Snapshot old, Snapshot now) {
+        int added = 0;
+        int removed = 0;
+        int modified = 0;
+        int i = 0;
+        int j = 0;
+        while (i < old.paths.length || j < now.paths.length) {
+            int c = i == old.paths.length ? 1 : j == now.paths.length ? -1 : old.paths[i].compareTo(now.paths[j]);
+            if (c < 0) {
+                removed++;
+                i++;
+            } else if (c > 0) {
+                added++;
+                j++;
+            } else {
+                if (old.sizes[i] != now.sizes[j] || old.lastModified[i] != now.lastModified[j]) {
+                    modified++;
+                }
+                i++;
+                j++;
+            }
+        }
+        return added + " added, " + modified + " modified, " + removed + " removed since the last scan";
+    }
+
+    /**
+     * Checks whether a file or directory exists according to the index.
+     * @return null if the index cannot tell, for example because the path is outside the indexed directory
+     */
+    @CheckForNull
+    Boolean exists(@NonNull FilePath f) {
+        Snapshot s = snapshot;
+        String rel = relativize(f);
+        if (s == null || s.channel != f.getChannel() || rel == null) {
+            return null;
+        }
+        if (rel.isEmpty() || Arrays.binarySearch(s.paths, rel) >= 0) {
+            return true;
+        }
+        for (int slash = rel.indexOf('/'); slash != -1; slash = rel.indexOf('/', slash + 1)) {
+            int i = Arrays.binarySearch(s.paths, rel.substring(0, slash));
+            if (i >= 0 && s.sizes[i] == Snapshot.UNSCANNED) {
+                return null; // beneath a symbolic link cycle, so only the agent can tell
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether any indexed file matches some Ant patterns.
+     * @return null if there is no current index, or nothing matched but some directory was not scanned
+     */
+    @CheckForNull
+    Boolean anyMatch(@NonNull FilePath dir, @NonNull String glob) {
+        Snapshot s = snapshot;
+        if (s == null || s.channel != dir.getChannel() || !root.equals(dir.getRemote())) {
+            return null;
+        }
+        ParallelFileScanner scanner = new ParallelFileScanner(glob, null, true);
+        boolean unscanned = false;
+        for (int i = 0; i < s.paths.length; i++) {
+            if (s.sizes[i] >= 0 && scanner.matches(s.paths[i])) {
+                return true;
+            }
+            unscanned |= s.sizes[i] == Snapshot.UNSCANNED;
+        }
+        return unscanned ? null : false;
+    }
+
+    /**
+     * Finds the {@code /}-separated path of a file within {@link #root}, if it is plainly inside.
+     */
+    private @CheckForNull String relativize(FilePath f) {
+        String remote = f.getRemote();
+        if (remote.equals(root)) {
+            return "";
+        }
+        if (remote.length() <= root.length() + 1
+                || !remote.startsWith(root)
+                || (remote.charAt(root.length()) != '/' && remote.charAt(root.length()) != '\\')) {
+            return null;
+        }
+        String rel = remote.substring(root.length() + 1).replace('\\', '/');
+        for (String segment : rel.split("/", -1)) {
+            if (segment.isEmpty() || segment.equals(".") || segment.equals("..")) {
+                return null; // would need normalizing on the agent
+            }
+        }
+        return rel;
+    }
+
+    /**
+     * Sorted paths with, for files, their sizes and modification times.
+     */
+    static final class Snapshot implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        /** {@link #sizes} entry for a directory */
+        static final long DIRECTORY = -1;
+        /** {@link #sizes} entry for a directory reached through a symbolic link cycle, whose contents are unknown */
+        static final long UNSCANNED = -2;
+        /** {@link #sizes} entry for something which exists but is neither a regular file nor a directory */
+        static final long OTHER = -3;
+
+        final String[] paths;
+        /** for files, otherwise {@link #DIRECTORY}, {@link #UNSCANNED}, or {@link #OTHER} */
+        final long[] sizes;
+
+        final long[] lastModified;
+
+        transient VirtualChannel channel;
+
+        Snapshot(String[] paths, long[] sizes, long[] lastModified) {
+            this.paths = paths;
+            this.sizes = sizes;
+            this.lastModified = lastModified;
+        }
+    }
+
+    private static final class Capture extends MasterToSlaveFileCallable<Snapshot> {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public Snapshot invoke(File dir, VirtualChannel channel) throws IOException, InterruptedException {
+            Map<String, long[]> entries = new ConcurrentSkipListMap<>();
+            new ParallelFileScanner(null, null, false).scan(dir, new ParallelFileScanner.Visitor() {
+                @Override
+                public void visit(@NonNull String path) throws IOException {
+                    BasicFileAttributes attrs =
+                            Files.readAttributes(new File(dir, path).toPath(), BasicFileAttributes.class);
+                    entries.put(path, new long[] {attrs.size(), attrs.lastModifiedTime().toMillis()});
+                }
+
+                @Override
+                public void visitDirectory(@NonNull String path) {
+                    entries.put(path, new long[] {Snapshot.DIRECTORY, -1});
+                }
+
+                @Override
+                public void visitSkipped(@NonNull String path, boolean directory) {
+                    if (directory) {
+                        entries.put(path, new long[] {Snapshot.UNSCANNED, -1});
+                    } else if (new File(dir, path).exists()) { // not a broken symbolic link, as FilePath.exists
+                        entries.put(path, new long[] {Snapshot.OTHER, -1});
+                    }
+                }
+            });
+            String[] paths = new String[entries.size()];
+            long[] sizes = new long[paths.length];
+            long[] lastModified = new long[paths.length];
+            int i = 0;
+            for (Map.Entry<String, long[]> e : entries.entrySet()) {
+                paths[i] = e.getKey();
+                sizes[i] = e.getValue()[0];
+                lastModified[i] = e.getValue()[1];
+                i++;
+            }
+            return new Snapshot(paths, sizes, lastModified);
+        }
+    }
+}
@@ -24,15 +24,41 @@
 
 package org.jenkinsci.plugins.workflow.steps;
 
+import edu.umd.cs.findbugs.annotations.CheckForNull;
 import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.AbortException;
 import hudson.Extension;
 import hudson.FilePath;
 import hudson.Util;
-import java.io.OutputStream;
+import hudson.remoting.VirtualChannel;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFileAttributeView;
 import java.util.Base64;
 import java.util.Collections;
 import java.util.Map;
 import java.util.Set;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import jenkins.MasterToSlaveFileCallable;
+import jenkins.util.SystemProperties;
+import org.apache.commons.io.IOUtils;
 import org.kohsuke.stapler.DataBoundConstructor;
 import org.kohsuke.stapler.DataBoundSetter;
 
@@ -41,6 +67,9 @@ public final class WriteFileStep extends Step {
     private final String file;
     private final String text;
     private String encoding;
+    private boolean ifChanged;
+    private boolean atomic;
+    private boolean append;
 
     @DataBoundConstructor
     public WriteFileStep(String file, String text) {
@@ -71,6 +100,45 @@ public final class WriteFileStep extends Step {
         this.encoding = Util.fixEmptyAndTrim(encoding);
     }
 
+    public boolean isIfChanged() {
+        return ifChanged;
+    }
+
+    /**
+     * Leave the file alone, including its modification time, if it already has exactly the new contents.
+     */
+    @DataBoundSetter
+    public void setIfChanged(boolean ifChanged) {
+        this.ifChanged = ifChanged;
+    }
+
+    public boolean isAtomic() {
+        return atomic;
+    }
+
+    /**
+     * Write to a temporary file in the same directory and then rename it,
+     * so that concurrent readers see either the old or the new contents, never a partial file.
+     */
+    @DataBoundSetter
+    public void setAtomic(boolean atomic) {
+        this.atomic = atomic;
+    }
+
+    public boolean isAppend() {
+        return append;
+    }
+
+    /**
+     * Add the text to the end of the file rather than replacing it.
+     * Within {@link WithFileWriterStep} for the same file, the text is buffered and written in larger chunks,
+     * so it may not be in the file until the block ends.
+     */
+    @DataBoundSetter
+    public void setAppend(boolean append) {
+        this.append = append;
+    }
+
     @Override
     public StepExecution start(StepContext context) throws Exception {
         return new Execution(this, context);
@@ -114,16 +182,163 @@ public final class WriteFileStep extends Step {
         @Override
         protected Void run() throws Exception {
             FilePath file = getContext().get(FilePath.class).child(step.file);
-            if (ReadFileStep.BASE64_ENCODING.equals(step.encoding)) {
-                try (OutputStream os = file.write()) {
-                    os.write(Base64.getDecoder().decode(step.text));
+            WithFileWriterStep.Buffer buffers = getContext().get(WithFileWriterStep.Buffer.class);
+            WithFileWriterStep.Buffer buffer = buffers != null ? buffers.find(file) : null;
+            if (step.append) {
+                if (step.ifChanged || step.atomic) {
+                    throw new AbortException("append may not be combined with ifChanged or atomic");
                 }
-            } else {
-                file.write(step.text, step.encoding); // The platform default is used if encoding is null.
+                if (buffer == null || !buffer.append(file, step.text, step.encoding)) {
+                    file.act(new Write(file, step.text, step.encoding, false, false, true));
+                }
+                return null;
+            }
+            file.act(new Write(file, step.text, step.encoding, step.ifChanged, step.atomic, false));
+            if (buffer != null) {
+                // otherwise text appended earlier in the block would be added after this
+                buffer.discard();
             }
             return null;
         }
 
         private static final long serialVersionUID = 1L;
     }
+
+    /**
+     * Writes a file on the agent, optionally skipping identical contents, replacing the file atomically,
+     * or appending.
+     * Text is encoded, or decoded from Base64, on the agent.
+     * Large text bound for a remote agent is sent compressed.
+     */
+    static final class Write extends MasterToSlaveFileCallable<Boolean> {
+
+        private static final long serialVersionUID = 1L;
+
+        /** Number of characters from which text sent to a remote agent is compressed. */
+        private static final int COMPRESS_CHARS =
+                SystemProperties.getInteger(WriteFileStep.class.getName() + ".compressChars", 64 * 1024);
+
+        private final @CheckForNull String text;
+        /** {@link #text} as gzipped UTF-8, if compressed */
+        private final @CheckForNull byte[] compressed;
+
+        private final @CheckForNull String encoding;
+        private final boolean ifChanged;
+        private final boolean atomic;
+        private final boolean append;
+
+        /**
+         * @param file the file to be written, used only to decide whether to compress
+         */
+        Write(
+                FilePath file,
+                String text,
+                @CheckForNull String encoding,
+                boolean ifChanged,
+                boolean atomic,
+                boolean append)
+                throws IOException {
+            if (file.isRemote() && text.length() >= COMPRESS_CHARS) {
+                ByteArrayOutputStream baos = new ByteArrayOutputStream(text.length() / 4);
+                try (Writer w = new OutputStreamWriter(new GZIPOutputStream(baos), StandardCharsets.UTF_8)) {
+                    w.write(text);
+                }
+                this.text = null;
+                this.compressed = baos.toByteArray();
+            } else {
+                this.text = text;
+                this.compressed = null;
+            }
+            this.encoding = encoding;
+            this.ifChanged = ifChanged;
+            this.atomic = atomic;
+            this.append = append;
+        }
+
+        private String text() throws IOException {
+            if (compressed == null) {
+                return text;
+            }
+            try (Reader r = new InputStreamReader(
+                    new GZIPInputStream(new ByteArrayInputStream(compressed)), StandardCharsets.UTF_8)) {
+                return IOUtils.toString(r);
+            }
+        }
+
+        /**
+         * @return whether the file was written
+         */
+        @Override
+        public Boolean invoke(File f, VirtualChannel channel) throws IOException, InterruptedException {
+            String content = text();
+            byte[] bytes;
+            if (ReadFileStep.BASE64_ENCODING.equals(encoding)) {
+                bytes = Base64.getDecoder().decode(content);
+            } else {
+                // As with FilePath.write, the platform default of the agent is used if encoding is null.
+                bytes = content.getBytes(encoding != null ? Charset.forName(encoding) : Charset.defaultCharset());
+            }
+            Path target = f.toPath();
+            if (ifChanged && sameContents(target, bytes)) {
+                return false;
+            }
+            Files.createDirectories(target.toAbsolutePath().getParent());
+            if (append) {
+                Files.write(target, bytes, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+                return true;
+            }
+            if (!atomic) {
+                Files.write(target, bytes);
+                return true;
+            }
+            if (Files.isSymbolicLink(target)) {
+                // Write through the link, as a plain write would, rather than replacing it with a regular file.
+                try {
+                    target = target.toRealPath();
+                } catch (NoSuchFileException x) {
+                    throw new AbortException("Cannot atomically write " + f + ", a symbolic link to a missing file");
+                }
+            }
+            // Not Files.createTempFile, whose restrictive permissions would be carried over to the target.
+            Path tmp = target.resolveSibling("." + target.getFileName() + "." + UUID.randomUUID() + ".tmp");
+            try {
+                Files.write(tmp, bytes, StandardOpenOption.CREATE_NEW);
+                if (Files.exists(target) && Files.getFileAttributeView(target, PosixFileAttributeView.class) != null) {
+                    // Keep the mode of the file being replaced, such as an executable bit.
+                    Files.setPosixFilePermissions(tmp, Files.getPosixFilePermissions(target));
+                }
+                try {
+                    Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                } catch (AtomicMoveNotSupportedException x) {
+                    Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+            return true;
+        }
+
+        private static boolean sameContents(Path file, byte[] bytes) throws IOException {
+            if (!Files.isRegularFile(file) || Files.size(file) != bytes.length) {
+                return false;
+            }
+            try (InputStream in = Files.newInputStream(file)) {
+                byte[] buf = new byte[8192];
+                int pos = 0;
+                int n;
+                while ((n = in.read(buf)) != -1) {
+                    if (pos + n > bytes.length) {
+                        return false;
+                    }
+                    for (int i = 0; i < n; i++) {
+                        if (buf[i] != bytes[pos + i]) {
+                            return false;
+                        }
+                    }
+                    pos += n;
+                }
+                return pos == bytes.length;
+            }
+        }
+    }
 }
@@ -0,0 +1,199 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.jenkinsci.plugins.workflow.steps;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.AbortException;
+import hudson.Extension;
+import hudson.FilePath;
+import hudson.Functions;
+import hudson.Util;
+import hudson.model.TaskListener;
+import hudson.remoting.VirtualChannel;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import jenkins.MasterToSlaveFileCallable;
+import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.DataBoundSetter;
+
+/**
+ * Writes several files in one call to the agent.
+ */
+public final class WriteFilesStep extends Step {
+
+    private final Map<String, String> files;
+    private String encoding;
+
+    @DataBoundConstructor
+    public WriteFilesStep(Map<String, String> files) {
+        this.files = files;
+    }
+
+    public Map<String, String> getFiles() {
+        return files;
+    }
+
+    public String getEncoding() {
+        return encoding;
+    }
+
+    /**
+     * Set the encoding to be used when writing the files. If the specified value is null or
+     * whitespace-only, then the platform default encoding will be used. If the texts are
+     * Base64-encoded strings, the decoded binary data can be written by specifying
+     * {@code Base64} as the encoding.
+     */
+    @DataBoundSetter
+    public void setEncoding(String encoding) {
+        this.encoding = Util.fixEmptyAndTrim(encoding);
+    }
+
+    @Override
+    public StepExecution start(StepContext context) throws Exception {
+        return new Execution(this, context);
+    }
+
+    @Extension
+    public static final class DescriptorImpl extends StepDescriptor {
+
+        @Override
+        public String getFunctionName() {
+            return "writeFiles";
+        }
+
+        @NonNull
+        @Override
+        public String getDisplayName() {
+            return "Write several files to workspace";
+        }
+
+        @Override
+        public Set<? extends Class<?>> getRequiredContext() {
+            Set<Class<?>> context = new HashSet<>();
+            Collections.addAll(context, FilePath.class, TaskListener.class);
+            return Collections.unmodifiableSet(context);
+        }
+
+        @Override
+        public String argumentsToString(Map<String, Object> namedArgs) {
+            Object files = namedArgs.get("files");
+            return files instanceof Map ? ((Map<?, ?>) files).size() + " file(s)" : null;
+        }
+    }
+
+    public static final class Execution extends SynchronousNonBlockingStepExecution<Void> {
+
+        private final transient WriteFilesStep step;
+
+        Execution(WriteFilesStep step, StepContext context) {
+            super(context);
+            this.step = step;
+        }
+
+        @Override
+        protected Void run() throws Exception {
+            if (step.files == null) {
+                throw new AbortException("'files' has not been defined for this 'writeFiles' step");
+            }
+            Map<String, String> files = new LinkedHashMap<>();
+            // values from Groovy may actually be GStrings
+            for (Map.Entry<?, ?> e : ((Map<?, ?>) step.files).entrySet()) {
+                if (e.getKey() == null || e.getKey().toString().isEmpty() || e.getValue() == null) {
+                    throw new AbortException("Missing file name or text in " + e);
+                }
+                files.put(e.getKey().toString(), e.getValue().toString());
+            }
+            FilePath ws = getContext().get(FilePath.class);
+            long bytes = ws.act(new WriteAll(files, step.encoding));
+            WithFileWriterStep.Buffer buffers = getContext().get(WithFileWriterStep.Buffer.class);
+            if (buffers != null) {
+                for (String file : files.keySet()) {
+                    WithFileWriterStep.Buffer buffer = buffers.find(ws.child(file));
+                    if (buffer != null) {
+                        // overwritten, so text appended earlier in a withFileWriter block is moot
+                        buffer.discard();
+                    }
+                }
+            }
+            getContext()
+                    .get(TaskListener.class)
+                    .getLogger()
+                    .println("Wrote " + files.size() + " file(s) (" + Functions.humanReadableByteSize(bytes) + ")");
+            return null;
+        }
+
+        private static final long serialVersionUID = 1L;
+    }
+
+    /**
+     * Writes files relative to a directory, creating each parent directory once.
+     * @return the total number of bytes written
+     */
+    private static final class WriteAll extends MasterToSlaveFileCallable<Long> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Map<String, String> files;
+        private final @CheckForNull String encoding;
+
+        WriteAll(Map<String, String> files, @CheckForNull String encoding) {
+            this.files = files;
+            this.encoding = encoding;
+        }
+
+        @Override
+        public Long invoke(File dir, VirtualChannel channel) throws IOException, InterruptedException {
+            // As with FilePath.write, the platform default of the agent is used if encoding is null.
+            Charset charset = ReadFileStep.BASE64_ENCODING.equals(encoding)
+                    ? null
+                    : encoding != null ? Charset.forName(encoding) : Charset.defaultCharset();
+            Set<Path> created = new HashSet<>();
+            long total = 0;
+            for (Map.Entry<String, String> e : files.entrySet()) {
+                Path target = dir.toPath().resolve(e.getKey()).toAbsolutePath();
+                Path parent = target.getParent();
+                if (parent != null && created.add(parent)) {
+                    Files.createDirectories(parent);
+                }
+                byte[] bytes = charset == null
+                        ? Base64.getDecoder().decode(e.getValue())
+                        : e.getValue().getBytes(charset);
+                Files.write(target, bytes);
+                total += bytes.length;
+            }
+            return total;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package org.jenkinsci.plugins.workflow.support.steps.stash;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import hudson.model.Run;
+import java.io.File;
+import org.jenkinsci.plugins.workflow.flow.StashManager;
+
+/**
+ * Knowledge of where {@link StashManager} keeps stashes when the artifact manager does not handle them:
+ * {@code stashes/<name>.tar.gz} under the build directory.
+ * workflow-api offers no public API for this, so it is confined to this class,
+ * and callers must treat anything not found here as unknown rather than as empty.
+ */
+final class DefaultStashStorage {
+
+    private static final String SUFFIX = ".tar.gz";
+
+    /**
+     * Lists stash archives in the default storage of a build.
+     * @param buildDir the root directory of a build
+     * @return the archives, or null if there are none or the layout is not recognized
+     */
+    static @CheckForNull File[] list(File buildDir) {
+        File[] stashes = new File(buildDir, "stashes").listFiles((dir, name) -> name.endsWith(SUFFIX));
+        return stashes == null || stashes.length == 0 ? null : stashes;
+    }
+
+    /**
+     * Finds the archive of one stash in the default storage of a build.
+     * @return the archive, or null if the artifact manager holds stashes itself or the archive is not where expected
+     */
+    static @CheckForNull File find(Run<?, ?> build, String name) {
+        if (build.getArtifactManager() instanceof StashManager.StashAwareArtifactManager) {
+            return null;
+        }
+        File stash = new File(new File(build.getRootDir(), "stashes"), name + SUFFIX);
+        return stash.isFile() ? stash : null;
+    }
+
+    private DefaultStashStorage() {}
+}
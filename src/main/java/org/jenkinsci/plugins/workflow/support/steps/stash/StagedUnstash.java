@@ -0,0 +1,307 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.jenkinsci.plugins.workflow.support.steps.stash;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import hudson.AbortException;
+import hudson.EnvVars;
+import hudson.FilePath;
+import hudson.Functions;
+import hudson.Launcher;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import hudson.remoting.VirtualChannel;
+import hudson.slaves.WorkspaceList;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+import jenkins.MasterToSlaveFileCallable;
+import org.jenkinsci.plugins.workflow.flow.StashManager;
+
+/**
+ * Restores one or more stashes by way of a temporary sibling of the workspace.
+ * Each stash is extracted into its own staging directory;
+ * the agent then checks for paths which more than one stash would write with different contents,
+ * and only if there are none moves the files into place.
+ * In delta mode, files already present in the workspace with identical contents are left untouched,
+ * so they keep their timestamps and are not rewritten.
+ * Each delta unstash also records which files it restored,
+ * so that when asked to, a later one can delete those the stash no longer contains.
+ * The stash is still transferred and extracted in full; only the writes into the workspace are reduced.
+ */
+final class StagedUnstash {
+
+    static Summary unstash(
+            Run<?, ?> build,
+            List<String> names,
+            FilePath workspace,
+            Launcher launcher,
+            EnvVars env,
+            TaskListener listener,
+            boolean delta,
+            boolean deleteStale)
+            throws IOException, InterruptedException {
+        if (deleteStale && !delta) {
+            throw new AbortException("deleteStale may only be used together with delta");
+        }
+        FilePath staging = createStagingDir(workspace);
+        try {
+            for (int i = 0; i < names.size(); i++) {
+                StashManager.unstash(build, names.get(i), staging.child(Integer.toString(i)), launcher, env, listener);
+            }
+            String manifests = delta ? staging.getParent().child("unstash").getRemote() : null;
+            Summary summary = staging.act(new Merge(workspace.getRemote(), names, manifests, deleteStale));
+            if (!summary.conflicts.isEmpty()) {
+                throw new AbortException("Stashes " + String.join(", ", names)
+                        + " contain different versions of the same files: " + String.join(", ", summary.conflicts));
+            }
+            if (!summary.blocked.isEmpty()) {
+                throw new AbortException("Cannot restore " + (names.size() == 1 ? "stash " : "stashes ")
+                        + String.join(", ", names) + " over existing paths of a different type: "
+                        + String.join(", ", summary.blocked));
+            }
+            StringBuilder message = new StringBuilder("Updated ")
+                    .append(summary.updated)
+                    .append(" file(s) from ")
+                    .append(names.size() == 1 ? "stash " : "stashes ")
+                    .append(String.join(", ", names));
+            if (delta) {
+                message.append(", left ")
+                        .append(summary.unchanged)
+                        .append(" identical file(s) (")
+                        .append(Functions.humanReadableByteSize(summary.unchangedBytes))
+                        .append(") untouched");
+                if (summary.deleted > 0) {
+                    message.append(", deleted ").append(summary.deleted).append(" file(s) no longer stashed");
+                }
+            }
+            listener.getLogger().println(message);
+            return summary;
+        } finally {
+            staging.deleteRecursive();
+        }
+    }
+
+    static FilePath createStagingDir(FilePath workspace) throws IOException, InterruptedException {
+        FilePath tmp = WorkspaceList.tempDir(workspace);
+        if (tmp == null) {
+            throw new IOException("Failed to set up a temporary directory.");
+        }
+        tmp.mkdirs();
+        return tmp.createTempDir("unstash", null);
+    }
+
+    static final class Summary implements Serializable {
+        private static final long serialVersionUID = 1L;
+        int updated;
+        int unchanged;
+        long unchangedBytes;
+        int deleted;
+        final List<String> conflicts = new ArrayList<>();
+        final List<String> blocked = new ArrayList<>();
+    }
+
+    /**
+     * Moves files from numbered staging subdirectories into the target directory.
+     * In delta mode, {@link #manifests} names a directory holding, per stash name,
+     * the list of files the previous delta unstash of that stash restored into this target.
+     * Files listed there which the stash no longer contains are deleted if {@link #deleteStale} is set,
+     * and otherwise kept in the list for as long as they exist.
+     */
+    private static final class Merge extends MasterToSlaveFileCallable<Summary> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final String target;
+        private final List<String> names;
+        private final @CheckForNull String manifests;
+        private final boolean deleteStale;
+
+        Merge(String target, List<String> names, @CheckForNull String manifests, boolean deleteStale) {
+            this.target = target;
+            this.names = new ArrayList<>(names);
+            this.manifests = manifests;
+            this.deleteStale = deleteStale;
+        }
+
+        @Override
+        public Summary invoke(File f, VirtualChannel channel) throws IOException, InterruptedException {
+            Path dest = new File(target).toPath();
+            SortedSet<String> dirs = new TreeSet<>();
+            SortedMap<String, List<Path>> files = new TreeMap<>();
+            List<Set<String>> stashed = new ArrayList<>();
+            for (int i = 0; i < names.size(); i++) {
+                Set<String> contents = new HashSet<>();
+                stashed.add(contents);
+                Path source = f.toPath().resolve(Integer.toString(i));
+                if (!Files.isDirectory(source)) {
+                    continue;
+                }
+                try (Stream<Path> walk = Files.walk(source)) {
+                    for (Path p : (Iterable<Path>) walk::iterator) {
+                        String rel = source.relativize(p).toString();
+                        if (Files.isDirectory(p, LinkOption.NOFOLLOW_LINKS)) {
+                            dirs.add(rel);
+                        } else {
+                            files.computeIfAbsent(rel, k -> new ArrayList<>()).add(p);
+                            contents.add(rel);
+                        }
+                    }
+                }
+            }
+            Summary summary = new Summary();
+            for (Map.Entry<String, List<Path>> entry : files.entrySet()) {
+                List<Path> sources = entry.getValue();
+                if (dirs.contains(entry.getKey())) {
+                    summary.conflicts.add(entry.getKey());
+                    continue;
+                }
+                for (Path other : sources.subList(1, sources.size())) {
+                    if (!identical(sources.get(0), other)) {
+                        summary.conflicts.add(entry.getKey());
+                        break;
+                    }
+                }
+            }
+            if (!summary.conflicts.isEmpty()) {
+                return summary;
+            }
+            for (String dir : dirs) {
+                Path d = dest.resolve(dir);
+                if (Files.exists(d) && !Files.isDirectory(d)) {
+                    summary.blocked.add(dir);
+                }
+            }
+            for (String file : files.keySet()) {
+                if (Files.isDirectory(dest.resolve(file), LinkOption.NOFOLLOW_LINKS)) {
+                    summary.blocked.add(file);
+                }
+            }
+            if (!summary.blocked.isEmpty()) {
+                return summary;
+            }
+            for (String dir : dirs) {
+                Files.createDirectories(dest.resolve(dir));
+            }
+            for (Map.Entry<String, List<Path>> entry : files.entrySet()) {
+                Path p = entry.getValue().get(0);
+                Path d = dest.resolve(entry.getKey());
+                if (manifests != null && identical(p, d)) {
+                    summary.unchanged++;
+                    summary.unchangedBytes += Files.readAttributes(
+                                    d, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS)
+                            .size();
+                } else {
+                    Files.move(p, d, StandardCopyOption.REPLACE_EXISTING);
+                    summary.updated++;
+                }
+            }
+            if (manifests != null) {
+                Path dir = Files.createDirectories(Paths.get(manifests));
+                for (int i = 0; i < names.size(); i++) {
+                    Path manifest = dir.resolve(names.get(i));
+                    Set<String> restored = stashed.get(i);
+                    for (String rel : readManifest(manifest)) {
+                        if (files.containsKey(rel) || dirs.contains(rel)) {
+                            continue;
+                        }
+                        Path d = dest.resolve(rel);
+                        if (Files.isDirectory(d, LinkOption.NOFOLLOW_LINKS)) {
+                            continue;
+                        }
+                        if (deleteStale) {
+                            if (Files.deleteIfExists(d)) {
+                                summary.deleted++;
+                            }
+                        } else if (Files.exists(d, LinkOption.NOFOLLOW_LINKS)) {
+                            restored.add(rel);
+                        }
+                    }
+                    writeManifest(manifest, restored);
+                }
+            }
+            return summary;
+        }
+
+        private static Set<String> readManifest(Path manifest) throws IOException {
+            Set<String> paths = new HashSet<>();
+            if (Files.isRegularFile(manifest)) {
+                try (DataInputStream in =
+                        new DataInputStream(new BufferedInputStream(Files.newInputStream(manifest)))) {
+                    for (int count = in.readInt(); count > 0; count--) {
+                        paths.add(in.readUTF());
+                    }
+                }
+            }
+            return paths;
+        }
+
+        private static void writeManifest(Path manifest, Set<String> paths) throws IOException {
+            try (DataOutputStream out =
+                    new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(manifest)))) {
+                out.writeInt(paths.size());
+                for (String path : paths) {
+                    out.writeUTF(path);
+                }
+            }
+        }
+
+        /**
+         * Whether two paths would restore the same thing: regular files with the same contents,
+         * or symbolic links with the same target.
+         */
+        private static boolean identical(Path a, Path b) throws IOException {
+            if (Files.isSymbolicLink(a)) {
+                return Files.isSymbolicLink(b) && Files.readSymbolicLink(a).equals(Files.readSymbolicLink(b));
+            }
+            return Files.isRegularFile(a, LinkOption.NOFOLLOW_LINKS)
+                    && Files.isRegularFile(b, LinkOption.NOFOLLOW_LINKS)
+                    && Files.size(a) == Files.size(b)
+                    && Files.mismatch(a, b) == -1;
+        }
+    }
+
+    private StagedUnstash() {}
+}
@@ -0,0 +1,214 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.jenkinsci.plugins.workflow.support.steps.stash;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import hudson.Util;
+import hudson.model.Run;
+import hudson.remoting.VirtualChannel;
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import jenkins.MasterToSlaveFileCallable;
+import jenkins.util.SystemProperties;
+import org.apache.tools.ant.DirectoryScanner;
+import org.apache.tools.ant.types.FileSet;
+import org.jenkinsci.plugins.workflow.graph.FlowNode;
+import org.jenkinsci.plugins.workflow.steps.TransferStatisticsAction;
+
+/**
+ * Records how much data {@code stash} and {@code unstash} move and how long they take,
+ * both on each step's {@link FlowNode} and in totals since the controller started.
+ */
+public final class StashStatistics {
+
+    private static final StashStatistics INSTANCE = new StashStatistics();
+
+    /**
+     * Whether {@code stash} should count files and bytes with an extra scan of the workspace before archiving.
+     */
+    @SuppressFBWarnings(value = "MS_SHOULD_BE_FINAL", justification = "Non-final for tests and script console.")
+    static boolean SCAN = SystemProperties.getBoolean(StashStatistics.class.getName() + ".scan");
+
+    public static StashStatistics get() {
+        return INSTANCE;
+    }
+
+    private final AtomicLong stashes = new AtomicLong();
+    private final AtomicLong stashedFiles = new AtomicLong();
+    private final AtomicLong stashedBytes = new AtomicLong();
+    private final AtomicLong stashedCompressedBytes = new AtomicLong();
+    private final AtomicLong stashMillis = new AtomicLong();
+    private final AtomicLong unstashes = new AtomicLong();
+    private final AtomicLong unstashedCompressedBytes = new AtomicLong();
+    private final AtomicLong unstashMillis = new AtomicLong();
+
+    public long getStashes() {
+        return stashes.get();
+    }
+
+    public long getStashedFiles() {
+        return stashedFiles.get();
+    }
+
+    public long getStashedBytes() {
+        return stashedBytes.get();
+    }
+
+    public long getStashedCompressedBytes() {
+        return stashedCompressedBytes.get();
+    }
+
+    public long getStashMillis() {
+        return stashMillis.get();
+    }
+
+    public long getUnstashes() {
+        return unstashes.get();
+    }
+
+    public long getUnstashedCompressedBytes() {
+        return unstashedCompressedBytes.get();
+    }
+
+    public long getUnstashMillis() {
+        return unstashMillis.get();
+    }
+
+    public String getStashTime() {
+        return Util.getTimeSpanString(getStashMillis());
+    }
+
+    public String getUnstashTime() {
+        return Util.getTimeSpanString(getUnstashMillis());
+    }
+
+    /**
+     * Counts the files which a stash with the given patterns would include, and their total size.
+     * Stash archiving itself happens inside {@code StashManager}, so this needs a separate scan,
+     * which is only run when {@link #SCAN} is set.
+     */
+    static final class Scan extends MasterToSlaveFileCallable<long[]> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final String includes, excludes;
+        private final boolean useDefaultExcludes;
+
+        Scan(String includes, String excludes, boolean useDefaultExcludes) {
+            this.includes = includes;
+            this.excludes = excludes;
+            this.useDefaultExcludes = useDefaultExcludes;
+        }
+
+        @Override
+        public long[] invoke(File basedir, VirtualChannel channel) throws IOException, InterruptedException {
+            if (!basedir.isDirectory()) {
+                return new long[2];
+            }
+            FileSet fs = Util.createFileSet(basedir, includes == null ? "**" : includes, excludes);
+            fs.setDefaultexcludes(useDefaultExcludes);
+            DirectoryScanner ds = fs.getDirectoryScanner();
+            String[] files = ds.getIncludedFiles();
+            long bytes = 0;
+            for (String f : files) {
+                bytes += new File(basedir, f).length();
+            }
+            return new long[] {files.length, bytes};
+        }
+    }
+
+    static void recordStash(
+            FlowNode node,
+            Run<?, ?> build,
+            String name,
+            @CheckForNull long[] scan,
+            long scanMillis,
+            long archiveMillis)
+            throws IOException {
+        File stash = DefaultStashStorage.find(build, name);
+        INSTANCE.stashes.incrementAndGet();
+        INSTANCE.stashMillis.addAndGet(scanMillis + archiveMillis);
+        Map<String, Long> metrics = new LinkedHashMap<>();
+        if (scan != null) {
+            INSTANCE.stashedFiles.addAndGet(scan[0]);
+            INSTANCE.stashedBytes.addAndGet(scan[1]);
+            metrics.put("files", scan[0]);
+            metrics.put("bytes", scan[1]);
+        }
+        if (stash != null) {
+            long compressed = stash.length();
+            INSTANCE.stashedCompressedBytes.addAndGet(compressed);
+            metrics.put("compressedBytes", compressed);
+        }
+        if (scan != null) {
+            metrics.put("scanMillis", scanMillis);
+        }
+        metrics.put("archiveMillis", archiveMillis);
+        TransferStatisticsAction.record(node, metrics);
+    }
+
+    static void recordUnstash(
+            FlowNode node,
+            Run<?, ?> build,
+            List<String> names,
+            long restoreMillis,
+            @CheckForNull StagedUnstash.Summary summary)
+            throws IOException {
+        Long compressed = 0L;
+        for (String name : names) {
+            File stash = DefaultStashStorage.find(build, name);
+            if (stash == null) {
+                compressed = null;
+                break;
+            }
+            compressed += stash.length();
+        }
+        INSTANCE.unstashes.addAndGet(names.size());
+        INSTANCE.unstashMillis.addAndGet(restoreMillis);
+        Map<String, Long> metrics = new LinkedHashMap<>();
+        if (compressed != null) {
+            INSTANCE.unstashedCompressedBytes.addAndGet(compressed);
+            metrics.put("compressedBytes", compressed);
+        }
+        metrics.put("restoreMillis", restoreMillis);
+        if (summary != null) {
+            metrics.put("updatedFiles", (long) summary.updated);
+            metrics.put("unchangedFiles", (long) summary.unchanged);
+            metrics.put("unchangedBytes", summary.unchangedBytes);
+        }
+        TransferStatisticsAction.record(node, metrics);
+    }
+
+    static long since(long start) {
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+
+    private StashStatistics() {}
+}
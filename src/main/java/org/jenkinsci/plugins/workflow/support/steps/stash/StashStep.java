@@ -39,6 +39,7 @@ import java.util.Map;
 import java.util.Set;
 import jenkins.model.Jenkins;
 import org.jenkinsci.plugins.workflow.flow.StashManager;
+import org.jenkinsci.plugins.workflow.graph.FlowNode;
 import org.jenkinsci.plugins.workflow.steps.Step;
 import org.jenkinsci.plugins.workflow.steps.StepContext;
 import org.jenkinsci.plugins.workflow.steps.StepDescriptor;
@@ -122,10 +123,18 @@ public class StashStep extends Step {
 
         @Override
         protected Void run() throws Exception {
+            Run<?, ?> build = getContext().get(Run.class);
+            FilePath workspace = getContext().get(FilePath.class);
+            long start = System.nanoTime();
+            long[] scan = StashStatistics.SCAN
+                    ? workspace.act(new StashStatistics.Scan(step.includes, step.excludes, step.useDefaultExcludes))
+                    : null;
+            long scanMillis = StashStatistics.since(start);
+            start = System.nanoTime();
             StashManager.stash(
-                    getContext().get(Run.class),
+                    build,
                     step.name,
-                    getContext().get(FilePath.class),
+                    workspace,
                     getContext().get(Launcher.class),
                     getContext().get(EnvVars.class),
                     getContext().get(TaskListener.class),
@@ -133,6 +142,13 @@ public class StashStep extends Step {
                     step.excludes,
                     step.useDefaultExcludes,
                     step.allowEmpty);
+            StashStatistics.recordStash(
+                    getContext().get(FlowNode.class),
+                    build,
+                    step.name,
+                    scan,
+                    scanMillis,
+                    StashStatistics.since(start));
             return null;
         }
     }
@@ -0,0 +1,183 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.jenkinsci.plugins.workflow.support.steps.stash;
+
+import hudson.Extension;
+import hudson.Functions;
+import hudson.model.AsyncPeriodicWork;
+import hudson.model.Job;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import jenkins.model.Jenkins;
+import jenkins.util.SystemProperties;
+import org.jenkinsci.plugins.workflow.flow.StashManager;
+
+/**
+ * Measures stashes kept on controller disk and deletes those of the oldest completed builds
+ * to honor {@link StashStorageConfiguration}.
+ * Only the default storage under each build directory is considered;
+ * stashes held by a remote artifact manager do not use controller disk.
+ */
+@Extension
+public class StashStorageCleanup extends AsyncPeriodicWork {
+
+    private static final long RECURRENCE_PERIOD = SystemProperties.getLong(
+            StashStorageCleanup.class.getName() + ".recurrencePeriod", TimeUnit.HOURS.toMillis(1));
+
+    private static final long MB = 1024 * 1024;
+
+    public StashStorageCleanup() {
+        super("Stash storage cleanup");
+    }
+
+    @Override
+    public long getRecurrencePeriod() {
+        return RECURRENCE_PERIOD;
+    }
+
+    @Override
+    protected void execute(TaskListener listener) throws IOException, InterruptedException {
+        StashStorageConfiguration config = StashStorageConfiguration.get();
+        if (config.getMaxJobSize() == 0 && config.getMaxTotalSize() == 0) {
+            return;
+        }
+        List<Entry> entries = scan();
+        Map<String, Long> usage = usage(entries);
+        long total = 0;
+        for (long size : usage.values()) {
+            total += size;
+        }
+        if (config.getMaxJobSize() > 0) {
+            for (Entry entry : entries) {
+                String job = entry.job.getFullName();
+                if (usage.get(job) > config.getMaxJobSize() * MB && evict(entry, listener)) {
+                    usage.merge(job, -entry.size, Long::sum);
+                    total -= entry.size;
+                }
+            }
+        }
+        if (config.getMaxTotalSize() > 0) {
+            for (Entry entry : entries) {
+                if (total <= config.getMaxTotalSize() * MB) {
+                    break;
+                }
+                if (!entry.evicted && evict(entry, listener)) {
+                    usage.merge(entry.job.getFullName(), -entry.size, Long::sum);
+                    total -= entry.size;
+                }
+            }
+        }
+        listener.getLogger().println("Stashes use " + Functions.humanReadableByteSize(total) + " in total");
+    }
+
+    /**
+     * Measures stash disk usage by job, largest first.
+     * Walks the build directories of every job, so only meant to be called on demand.
+     */
+    static Map<String, Long> usage() {
+        return usage(scan());
+    }
+
+    private static Map<String, Long> usage(List<Entry> entries) {
+        Map<String, Long> usage = new HashMap<>();
+        for (Entry entry : entries) {
+            usage.merge(entry.job.getFullName(), entry.size, Long::sum);
+        }
+        Map<String, Long> sorted = new LinkedHashMap<>();
+        usage.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .forEach(e -> sorted.put(e.getKey(), e.getValue()));
+        return sorted;
+    }
+
+    /**
+     * Finds builds with stashes in default storage, oldest first.
+     */
+    private static List<Entry> scan() {
+        List<Entry> entries = new ArrayList<>();
+        for (Job<?, ?> job : Jenkins.get().allItems(Job.class)) {
+            File[] builds = job.getBuildDir().listFiles();
+            if (builds == null) {
+                continue;
+            }
+            for (File build : builds) {
+                if (!build.getName().matches("[0-9]+")) {
+                    continue;
+                }
+                File[] stashes = DefaultStashStorage.list(build);
+                if (stashes == null) {
+                    continue;
+                }
+                Entry entry = new Entry(job, Integer.parseInt(build.getName()));
+                for (File stash : stashes) {
+                    entry.size += stash.length();
+                    entry.lastModified = Math.max(entry.lastModified, stash.lastModified());
+                }
+                entries.add(entry);
+            }
+        }
+        entries.sort(Comparator.comparingLong(e -> e.lastModified));
+        return entries;
+    }
+
+    private static boolean evict(Entry entry, TaskListener listener) throws InterruptedException {
+        Run<?, ?> build = entry.job.getBuildByNumber(entry.number);
+        if (build == null || build.isBuilding()) {
+            return false;
+        }
+        listener.getLogger()
+                .println("Deleting " + Functions.humanReadableByteSize(entry.size) + " of stashes from " + build);
+        try {
+            StashManager.clearAll(build, listener);
+        } catch (IOException x) {
+            Functions.printStackTrace(x, listener.error("Failed to delete stashes from " + build));
+            return false;
+        }
+        entry.evicted = true;
+        return true;
+    }
+
+    private static final class Entry {
+        final Job<?, ?> job;
+        final int number;
+        long size;
+        long lastModified;
+        boolean evicted;
+
+        Entry(Job<?, ?> job, int number) {
+            this.job = job;
+            this.number = number;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.jenkinsci.plugins.workflow.support.steps.stash;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.Extension;
+import hudson.ExtensionList;
+import hudson.Functions;
+import hudson.Util;
+import hudson.util.FormValidation;
+import java.util.Map;
+import jenkins.model.GlobalConfiguration;
+import jenkins.model.Jenkins;
+import org.jenkinsci.Symbol;
+import org.kohsuke.stapler.DataBoundSetter;
+import org.kohsuke.stapler.verb.POST;
+
+/**
+ * Limits on the disk space used by stashes kept on the controller.
+ * Enforced periodically by {@link StashStorageCleanup}.
+ */
+@Extension
+@Symbol("stashStorage")
+public class StashStorageConfiguration extends GlobalConfiguration {
+
+    /** Maximum total size of stashes from completed builds, in megabytes; zero for unlimited. */
+    private long maxTotalSize;
+
+    /** Maximum size of stashes from completed builds of any one job, in megabytes; zero for unlimited. */
+    private long maxJobSize;
+
+    public StashStorageConfiguration() {
+        load();
+    }
+
+    public static @NonNull StashStorageConfiguration get() {
+        return ExtensionList.lookupSingleton(StashStorageConfiguration.class);
+    }
+
+    public long getMaxTotalSize() {
+        return maxTotalSize;
+    }
+
+    @DataBoundSetter
+    public void setMaxTotalSize(long maxTotalSize) {
+        this.maxTotalSize = Math.max(0, maxTotalSize);
+        save();
+    }
+
+    public long getMaxJobSize() {
+        return maxJobSize;
+    }
+
+    @DataBoundSetter
+    public void setMaxJobSize(long maxJobSize) {
+        this.maxJobSize = Math.max(0, maxJobSize);
+        save();
+    }
+
+    /**
+     * Stash disk usage by job, largest first, measured now.
+     */
+    public @NonNull Map<String, Long> getUsage() {
+        return StashStorageCleanup.usage();
+    }
+
+    @POST
+    public FormValidation doMeasureUsage() {
+        Jenkins.get().checkPermission(Jenkins.ADMINISTER);
+        Map<String, Long> usage = getUsage();
+        if (usage.isEmpty()) {
+            return FormValidation.ok("No stashes are kept on the controller");
+        }
+        StringBuilder html = new StringBuilder("<table class=\"jenkins-table jenkins-table--small\">");
+        usage.forEach((job, size) -> html.append("<tr><td>")
+                .append(Util.escape(job))
+                .append("</td><td>")
+                .append(Functions.humanReadableByteSize(size))
+                .append("</td></tr>"));
+        return FormValidation.okWithMarkup(html.append("</table>").toString());
+    }
+
+    public @NonNull StashStatistics getStatistics() {
+        return StashStatistics.get();
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.jenkinsci.plugins.workflow.support.steps.stash;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import hudson.EnvVars;
+import hudson.Extension;
+import hudson.FilePath;
+import hudson.Launcher;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import jenkins.model.Jenkins;
+import org.jenkinsci.plugins.workflow.graph.FlowNode;
+import org.jenkinsci.plugins.workflow.steps.Step;
+import org.jenkinsci.plugins.workflow.steps.StepContext;
+import org.jenkinsci.plugins.workflow.steps.StepDescriptor;
+import org.jenkinsci.plugins.workflow.steps.StepExecution;
+import org.jenkinsci.plugins.workflow.steps.SynchronousNonBlockingStepExecution;
+import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.DataBoundSetter;
+
+/**
+ * Restores several stashes at once, failing before any file is written if two of them disagree about a path.
+ */
+public class UnstashAllStep extends Step {
+
+    private final @NonNull List<String> names;
+    private boolean delta;
+    private boolean deleteStale;
+
+    @DataBoundConstructor
+    public UnstashAllStep(@NonNull List<String> names) {
+        if (names.isEmpty()) {
+            throw new IllegalArgumentException("At least one stash name must be specified");
+        }
+        for (String name : names) {
+            Jenkins.checkGoodName(name);
+        }
+        this.names = new ArrayList<>(names);
+    }
+
+    @NonNull
+    public List<String> getNames() {
+        return Collections.unmodifiableList(names);
+    }
+
+    public boolean isDelta() {
+        return delta;
+    }
+
+    @DataBoundSetter
+    public void setDelta(boolean delta) {
+        this.delta = delta;
+    }
+
+    public boolean isDeleteStale() {
+        return deleteStale;
+    }
+
+    @DataBoundSetter
+    public void setDeleteStale(boolean deleteStale) {
+        this.deleteStale = deleteStale;
+    }
+
+    @Override
+    public StepExecution start(StepContext context) throws Exception {
+        return new Execution(this, context);
+    }
+
+    public static class Execution extends SynchronousNonBlockingStepExecution<Void> {
+
+        private static final long serialVersionUID = 1L;
+
+        @SuppressFBWarnings(value = "SE_TRANSIENT_FIELD_NOT_RESTORED", justification = "Only used when starting.")
+        private final transient UnstashAllStep step;
+
+        Execution(UnstashAllStep step, StepContext context) {
+            super(context);
+            this.step = step;
+        }
+
+        @Override
+        protected Void run() throws Exception {
+            Run<?, ?> build = getContext().get(Run.class);
+            long start = System.nanoTime();
+            StagedUnstash.Summary summary = StagedUnstash.unstash(
+                    build,
+                    step.names,
+                    getContext().get(FilePath.class),
+                    getContext().get(Launcher.class),
+                    getContext().get(EnvVars.class),
+                    getContext().get(TaskListener.class),
+                    step.delta,
+                    step.deleteStale);
+            StashStatistics.recordUnstash(
+                    getContext().get(FlowNode.class), build, step.names, StashStatistics.since(start), summary);
+            return null;
+        }
+    }
+
+    @Extension
+    public static class DescriptorImpl extends StepDescriptor {
+
+        @Override
+        public String getFunctionName() {
+            return "unstashAll";
+        }
+
+        @NonNull
+        @Override
+        public String getDisplayName() {
+            return "Restore several previously stashed sets of files";
+        }
+
+        @Override
+        public Set<? extends Class<?>> getRequiredContext() {
+            Set<Class<?>> context = new HashSet<>();
+            Collections.addAll(context, Run.class, FilePath.class, Launcher.class, EnvVars.class, TaskListener.class);
+            return Collections.unmodifiableSet(context);
+        }
+
+        @Override
+        public String argumentsToString(Map<String, Object> namedArgs) {
+            Object names = namedArgs.get("names");
+            if (names instanceof List) {
+                List<String> strings = new ArrayList<>();
+                for (Object name : (List<?>) names) {
+                    strings.add(String.valueOf(name));
+                }
+                return String.join(", ", strings);
+            }
+            return null;
+        }
+    }
+}
@@ -37,16 +37,20 @@ import java.util.HashSet;
 import java.util.Set;
 import jenkins.model.Jenkins;
 import org.jenkinsci.plugins.workflow.flow.StashManager;
+import org.jenkinsci.plugins.workflow.graph.FlowNode;
 import org.jenkinsci.plugins.workflow.steps.Step;
 import org.jenkinsci.plugins.workflow.steps.StepContext;
 import org.jenkinsci.plugins.workflow.steps.StepDescriptor;
 import org.jenkinsci.plugins.workflow.steps.StepExecution;
 import org.jenkinsci.plugins.workflow.steps.SynchronousNonBlockingStepExecution;
 import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.DataBoundSetter;
 
 public class UnstashStep extends Step {
 
     private final @NonNull String name;
+    private boolean delta;
+    private boolean deleteStale;
 
     @DataBoundConstructor
     public UnstashStep(@NonNull String name) {
@@ -59,9 +63,27 @@ public class UnstashStep extends Step {
         return name;
     }
 
+    public boolean isDelta() {
+        return delta;
+    }
+
+    @DataBoundSetter
+    public void setDelta(boolean delta) {
+        this.delta = delta;
+    }
+
+    public boolean isDeleteStale() {
+        return deleteStale;
+    }
+
+    @DataBoundSetter
+    public void setDeleteStale(boolean deleteStale) {
+        this.deleteStale = deleteStale;
+    }
+
     @Override
     public StepExecution start(StepContext context) throws Exception {
-        return new Execution(name, context);
+        return new Execution(this, context);
     }
 
     public static class Execution extends SynchronousNonBlockingStepExecution<Void> {
@@ -69,22 +91,43 @@ public class UnstashStep extends Step {
         private static final long serialVersionUID = 1L;
 
         @SuppressFBWarnings(value = "SE_TRANSIENT_FIELD_NOT_RESTORED", justification = "Only used when starting.")
-        private final transient String name;
+        private final transient UnstashStep step;
 
-        Execution(String name, StepContext context) {
+        Execution(UnstashStep step, StepContext context) {
             super(context);
-            this.name = name;
+            this.step = step;
         }
 
         @Override
         protected Void run() throws Exception {
-            StashManager.unstash(
-                    getContext().get(Run.class),
-                    name,
-                    getContext().get(FilePath.class),
-                    getContext().get(Launcher.class),
-                    getContext().get(EnvVars.class),
-                    getContext().get(TaskListener.class));
+            Run<?, ?> build = getContext().get(Run.class);
+            long start = System.nanoTime();
+            StagedUnstash.Summary summary = null;
+            if (step.delta || step.deleteStale) {
+                summary = StagedUnstash.unstash(
+                        build,
+                        Collections.singletonList(step.name),
+                        getContext().get(FilePath.class),
+                        getContext().get(Launcher.class),
+                        getContext().get(EnvVars.class),
+                        getContext().get(TaskListener.class),
+                        step.delta,
+                        step.deleteStale);
+            } else {
+                StashManager.unstash(
+                        build,
+                        step.name,
+                        getContext().get(FilePath.class),
+                        getContext().get(Launcher.class),
+                        getContext().get(EnvVars.class),
+                        getContext().get(TaskListener.class));
+            }
+            StashStatistics.recordUnstash(
+                    getContext().get(FlowNode.class),
+                    build,
+                    Collections.singletonList(step.name),
+                    StashStatistics.since(start),
+                    summary);
             return null;
         }
     }
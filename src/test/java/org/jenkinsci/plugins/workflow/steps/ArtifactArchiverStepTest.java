@@ -3,8 +3,12 @@ package org.jenkinsci.plugins.workflow.steps;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import hudson.Util;
+import java.io.File;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
 import jenkins.model.ArtifactManagerConfiguration;
 import jenkins.util.VirtualFile;
 import org.apache.commons.io.IOUtils;
@@ -60,6 +64,61 @@ class ArtifactArchiverStepTest {
         r.assertLogContains(Messages.ArtifactArchiverStepExecution_Deprecated(), b);
     }
 
+    @Test
+    void archiveInChunks() throws Exception {
+        WorkflowJob p = r.jenkins.createProject(WorkflowJob.class, "p");
+        p.setDefinition(new CpsFlowDefinition("""
+                node {
+                    for (int i = 0; i < 5; i++) {
+                        writeFile text: "file #$i", file: "a/$i"
+                    }
+                    archive 'a/'
+                }""", true));
+        int chunkSize = ArtifactArchiverStepExecution.CHUNK_SIZE;
+        ArtifactArchiverStepExecution.CHUNK_SIZE = 2;
+        WorkflowRun b;
+        try {
+            b = r.buildAndAssertSuccess(p);
+        } finally {
+            ArtifactArchiverStepExecution.CHUNK_SIZE = chunkSize;
+        }
+        assertEquals(5, b.getArtifacts().size());
+        for (int i = 0; i < 5; i++) {
+            try (InputStream stream = b.getArtifactManager().root().child("a/" + i).open()) {
+                assertEquals("file #" + i, IOUtils.toString(stream, StandardCharsets.UTF_8));
+            }
+        }
+    }
+
+    @Test
+    void archiveOnAgent() throws Exception {
+        r.createSlave("remote", null, null);
+        WorkflowJob p = r.jenkins.createProject(WorkflowJob.class, "p");
+        p.setDefinition(new CpsFlowDefinition("""
+                node('remote') {
+                    for (int i = 0; i < 5; i++) {
+                        writeFile text: "file #$i", file: "a/$i"
+                    }
+                    archive includes: 'a/', dedupe: 1
+                }""", true));
+        int chunkSize = ArtifactArchiverStepExecution.CHUNK_SIZE;
+        ArtifactArchiverStepExecution.CHUNK_SIZE = 2;
+        WorkflowRun b;
+        try {
+            r.assertLogContains("Reused 0 of 5 artifact(s)", r.buildAndAssertSuccess(p));
+            b = r.buildAndAssertSuccess(p);
+        } finally {
+            ArtifactArchiverStepExecution.CHUNK_SIZE = chunkSize;
+        }
+        r.assertLogContains("Reused 5 of 5 artifact(s)", b);
+        assertEquals(5, b.getArtifacts().size());
+        for (int i = 0; i < 5; i++) {
+            try (InputStream stream = b.getArtifactManager().root().child("a/" + i).open()) {
+                assertEquals("file #" + i, IOUtils.toString(stream, StandardCharsets.UTF_8));
+            }
+        }
+    }
+
     @Issue("JENKINS-31931")
     @Test
     void nonexistent() throws Exception {
@@ -117,4 +176,103 @@ class ArtifactArchiverStepTest {
             return null;
         });
     }
+
+    @Test
+    void unarchiveConcurrently() throws Exception {
+        WorkflowJob p = r.jenkins.createProject(WorkflowJob.class, "p");
+        p.setDefinition(new CpsFlowDefinition("""
+                node {
+                    for (int i = 0; i < 20; i++) {
+                        writeFile text: "file #$i", file: "a/$i"
+                    }
+                    archive 'a/'
+                    dir('new') {
+                        unarchive mapping: ['a/' : '.'], concurrency: 4
+                        echo "${readFile 'a/0'}, ${readFile 'a/19'}"
+                    }
+                }
+                """, true));
+        WorkflowRun b = r.buildAndAssertSuccess(p);
+        r.assertLogContains("file #0, file #19", b);
+        r.assertLogContains("Copied 20 artifact(s)", b);
+    }
+
+    @Test
+    void unarchiveBulk() throws Exception {
+        r.createSlave("remote", null, null);
+        WorkflowJob p = r.jenkins.createProject(WorkflowJob.class, "p");
+        p.setDefinition(new CpsFlowDefinition("""
+                node('remote') {
+                    writeFile text: 'one', file: 'a/1'; writeFile text: 'two', file: 'a/b/2'
+                    writeFile text: 'single', file: 's'
+                    archive 'a/,s'
+                    dir('new') {
+                        unarchive mapping: ['a/' : 'out', 's' : 'copy-of-s'], bulk: true
+                        echo "${readFile 'out/a/1'}/${readFile 'out/a/b/2'}/${readFile 'copy-of-s'}"
+                    }
+                }
+                """, true));
+        WorkflowRun b = r.buildAndAssertSuccess(p);
+        r.assertLogContains("one/two/single", b);
+        r.assertLogContains("Copied 3 artifact(s)", b);
+    }
+
+    @Test
+    void unarchiveSkipIdentical() throws Exception {
+        WorkflowJob p = r.jenkins.createProject(WorkflowJob.class, "p");
+        p.setDefinition(new CpsFlowDefinition("""
+                node {
+                    writeFile text: 'one', file: 'a/1'; writeFile text: 'two', file: 'a/2'
+                    archiveArtifacts artifacts: 'a/', fingerprint: true
+                    writeFile text: 'changed', file: 'a/2'
+                    unarchive mapping: ['a/' : '.'], skipIdentical: true
+                    echo "${readFile 'a/1'}/${readFile 'a/2'}"
+                    writeFile text: 'three', file: 'b/3'
+                    archive 'b/'
+                    unarchive mapping: ['b/' : '.'], skipIdentical: true
+                }
+                """, true));
+        WorkflowRun b = r.buildAndAssertSuccess(p);
+        r.assertLogContains("one/two", b);
+        r.assertLogContains("Skipped 1 artifact(s)", b);
+        r.assertLogContains("Copied 1 artifact(s)", b);
+        r.assertLogContains("1 artifact(s) have no recorded fingerprint", b);
+    }
+
+    @Test
+    void dedupe() throws Exception {
+        WorkflowJob p = r.jenkins.createProject(WorkflowJob.class, "p");
+        p.setDefinition(new CpsFlowDefinition("""
+                node {
+                    writeFile text: 'same', file: 'a/1'; writeFile text: "${currentBuild.number}", file: 'a/2'
+                    archive includes: 'a/', dedupe: 5
+                }
+                """, true));
+        r.assertLogContains("Reused 0 of 2 artifact(s)", r.buildAndAssertSuccess(p));
+        WorkflowRun b = r.buildAndAssertSuccess(p);
+        r.assertLogContains("Reused 1 of 2 artifact(s)", b);
+        assertEquals("same", Files.readString(new File(b.getArtifactsDir(), "a/1").toPath()));
+        assertEquals("2", Files.readString(new File(b.getArtifactsDir(), "a/2").toPath()));
+        assertEquals(2, b.getArtifacts().size());
+    }
+
+    @Test
+    void dedupeIgnoresPathsOutsideArtifacts() throws Exception {
+        WorkflowJob p = r.jenkins.createProject(WorkflowJob.class, "p");
+        p.setDefinition(new CpsFlowDefinition("""
+                node {
+                    writeFile text: currentBuild.number == 1 ? 'x' : 'secret', file: 'a/1'
+                    archive includes: 'a/', dedupe: 5
+                }
+                """, true));
+        WorkflowRun b1 = r.buildAndAssertSuccess(p);
+        Files.writeString(new File(b1.getRootDir(), "leaked").toPath(), "secret");
+        Files.writeString(
+                new File(b1.getRootDir(), "artifact-digests.txt").toPath(),
+                Util.getDigestOf("secret") + " ../leaked\n",
+                StandardOpenOption.APPEND);
+        WorkflowRun b2 = r.buildAndAssertSuccess(p);
+        r.assertLogContains("Reused 0 of 1 artifact(s)", b2);
+        assertEquals("secret", Files.readString(new File(b2.getArtifactsDir(), "a/1").toPath()));
+    }
 }
@@ -1,7 +1,14 @@
 package org.jenkinsci.plugins.workflow.steps;
 
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+
+import hudson.FilePath;
+import hudson.Functions;
+import hudson.model.Result;
+import hudson.model.TaskListener;
 import org.jenkinsci.plugins.workflow.cps.CpsFlowDefinition;
 import org.jenkinsci.plugins.workflow.job.WorkflowJob;
+import org.jenkinsci.plugins.workflow.job.WorkflowRun;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.RegisterExtension;
 import org.jvnet.hudson.test.Issue;
@@ -35,4 +42,117 @@ class FileExistsStepTest {
             j.assertLogContains(Messages.FileExistsStep_EmptyString(), j.buildAndAssertSuccess(p));
         });
     }
+
+    @Test
+    void batchAndStat() throws Throwable {
+        sessions.then(j -> {
+            WorkflowJob p = j.createProject(WorkflowJob.class, "p");
+            p.setDefinition(new CpsFlowDefinition("""
+                    node {
+                      writeFile file: 'dir/marker', text: 'four'
+                      echo "exists=${fileExists files: ['dir/marker', 'dir', 'missing']}"
+                      def s = fileExists files: ['dir/marker', 'dir', 'missing'], stat: true
+                      echo "file=${s['dir/marker'].type}/${s['dir/marker'].size} dir=${s.dir.type} missing=${s.missing}"
+                      echo "single=${fileExists(file: 'dir/marker', stat: true).exists}"
+                    }
+                    """, true));
+            WorkflowRun b = j.buildAndAssertSuccess(p);
+            j.assertLogContains("exists=[dir/marker:true, dir:true, missing:false]", b);
+            j.assertLogContains("file=file/4 dir=directory missing=[exists:false]", b);
+            j.assertLogContains("single=true", b);
+        });
+    }
+
+    @Test
+    void batchPaths() throws Throwable {
+        sessions.then(j -> {
+            WorkflowJob p = j.createProject(WorkflowJob.class, "p");
+            p.setDefinition(new CpsFlowDefinition("""
+                    node {
+                      writeFile file: 'dir/marker', text: 'four'
+                      def path = pwd() + '/dir/marker'
+                      echo "absolute=${fileExists(files: [path])[path]}"
+                      echo "stat=${fileExists(files: [path], stat: true)[path].type}"
+                    }
+                    """, true));
+            WorkflowRun b = j.buildAndAssertSuccess(p);
+            j.assertLogContains("absolute=true", b);
+            j.assertLogContains("stat=file", b);
+            p.setDefinition(new CpsFlowDefinition("node {fileExists file: 'a', files: ['b']}", true));
+            j.assertLogContains("Specify only one of file, files, or glob", j.buildAndAssertStatus(Result.FAILURE, p));
+            p.setDefinition(new CpsFlowDefinition("node {fileExists file: 'a', glob: '*.txt'}", true));
+            j.assertLogContains("Specify only one of file, files, or glob", j.buildAndAssertStatus(Result.FAILURE, p));
+        });
+    }
+
+    @Test
+    void glob() throws Throwable {
+        sessions.then(j -> {
+            WorkflowJob p = j.createProject(WorkflowJob.class, "p");
+            p.setDefinition(new CpsFlowDefinition("""
+                    node {
+                      writeFile file: 'sub/a.txt', text: ''
+                      echo "glob=${fileExists glob: '**/*.txt'}/${fileExists glob: '*.md'}"
+                      echo "absolute=${fileExists glob: '/etc/**'}"
+                      dir('missing') {
+                        echo "missing=${fileExists glob: '**'}"
+                      }
+                    }
+                    """, true));
+            WorkflowRun b = j.buildAndAssertSuccess(p);
+            j.assertLogContains("glob=true/false", b);
+            j.assertLogContains("absolute=false", b);
+            j.assertLogContains("missing=false", b);
+        });
+    }
+
+    @Test
+    void workspaceIndex() throws Throwable {
+        sessions.then(j -> {
+            WorkflowJob p = j.createProject(WorkflowJob.class, "p");
+            p.setDefinition(new CpsFlowDefinition("""
+                    node {
+                      writeFile file: 'a/pom.xml', text: 'x'
+                      withWorkspaceIndex {
+                        echo "before=${fileExists 'a/pom.xml'}/${fileExists 'a'}/${fileExists 'b/pom.xml'}"
+                        writeFile file: 'b/pom.xml', text: 'y'
+                        echo "stale=${fileExists 'b/pom.xml'}/${fileExists glob: '*/pom.xml'}"
+                        refreshWorkspaceIndex()
+                        echo "after=${fileExists files: ['a/pom.xml', 'b/pom.xml']}"
+                        echo "outside=${fileExists 'a/../b/pom.xml'}"
+                      }
+                    }
+                    """, true));
+            WorkflowRun b = j.buildAndAssertSuccess(p);
+            j.assertLogContains("Indexed 1 file(s)", b);
+            j.assertLogContains("before=true/true/false", b);
+            j.assertLogContains("stale=false/true", b);
+            j.assertLogContains("2 added, 0 modified, 0 removed since the last scan", b);
+            j.assertLogContains("after=[a/pom.xml:true, b/pom.xml:true]", b);
+            j.assertLogContains("outside=true", b);
+        });
+    }
+
+    @Test
+    void workspaceIndexSpecialEntries() throws Throwable {
+        assumeFalse(Functions.isWindows());
+        sessions.then(j -> {
+            WorkflowJob p = j.createProject(WorkflowJob.class, "p");
+            FilePath ws = j.jenkins.getWorkspaceFor(p);
+            ws.child("a/f").write("x", null);
+            ws.child("a/loop").symlinkTo("..", TaskListener.NULL);
+            ws.child("broken").symlinkTo("missing", TaskListener.NULL);
+            p.setDefinition(new CpsFlowDefinition("""
+                    node {
+                      withWorkspaceIndex {
+                        echo "loop=${fileExists 'a/loop'}/${fileExists 'a/loop/a/f'}/${fileExists 'a/loop/a/g'}"
+                        echo "broken=${fileExists 'broken'} glob=${fileExists glob: '**/g'}"
+                      }
+                    }
+                    """, true));
+            WorkflowRun b = j.buildAndAssertSuccess(p);
+            j.assertLogContains("loop=true/true/false", b);
+            j.assertLogContains("broken=false glob=false", b);
+        });
+    }
 }
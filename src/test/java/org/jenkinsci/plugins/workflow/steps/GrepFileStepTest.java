@@ -0,0 +1,76 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.jenkinsci.plugins.workflow.steps;
+
+import hudson.model.Result;
+import org.jenkinsci.plugins.workflow.cps.CpsFlowDefinition;
+import org.jenkinsci.plugins.workflow.job.WorkflowJob;
+import org.jenkinsci.plugins.workflow.job.WorkflowRun;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+
+@WithJenkins
+class GrepFileStepTest {
+
+    private JenkinsRule r;
+
+    @BeforeEach
+    void beforeEach(JenkinsRule rule) {
+        r = rule;
+    }
+
+    @Test
+    void basics() throws Exception {
+        WorkflowJob p = r.jenkins.createProject(WorkflowJob.class, "p");
+        p.setDefinition(new CpsFlowDefinition("""
+                node {
+                  writeFile file: 'logs/a.log', text: 'ok\\nERROR one\\nok\\n'
+                  writeFile file: 'logs/b.log', text: 'ERROR two\\nERROR three\\n'
+                  writeFile file: 'other.txt', text: 'ERROR elsewhere\\n'
+                  def r = grepFile pattern: '^ERROR', glob: 'logs/*.log', maxResults: 2
+                  r.matches.each { echo "${it.file}:${it.lineNumber}:${it.line}" }
+                  echo "count=${r.count} truncated=${r.truncated}"
+                  echo "single=${grepFile(pattern: 'else', file: 'other.txt').count}"
+                  echo "absolute=${grepFile(pattern: 'else', file: "${pwd()}/other.txt").count}"
+                }
+                """, true));
+        WorkflowRun b = r.buildAndAssertSuccess(p);
+        r.assertLogContains("logs/a.log:2:ERROR one", b);
+        r.assertLogContains("logs/b.log:1:ERROR two", b);
+        r.assertLogNotContains("ERROR three", b);
+        r.assertLogContains("count=3 truncated=true", b);
+        r.assertLogContains("single=1", b);
+        r.assertLogContains("absolute=1", b);
+    }
+
+    @Test
+    void fileOrGlob() throws Exception {
+        WorkflowJob p = r.jenkins.createProject(WorkflowJob.class, "p");
+        p.setDefinition(new CpsFlowDefinition("node { grepFile pattern: 'x' }", true));
+        r.assertLogContains("Specify exactly one of file or glob", r.buildAndAssertStatus(Result.FAILURE, p));
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.jenkinsci.plugins.workflow.steps;
+
+import hudson.model.Result;
+import org.jenkinsci.plugins.workflow.cps.CpsFlowDefinition;
+import org.jenkinsci.plugins.workflow.job.WorkflowJob;
+import org.jenkinsci.plugins.workflow.job.WorkflowRun;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+
+@WithJenkins
+class HashFilesStepTest {
+
+    private JenkinsRule r;
+
+    @BeforeEach
+    void beforeEach(JenkinsRule rule) {
+        r = rule;
+    }
+
+    @Test
+    void basics() throws Exception {
+        WorkflowJob p = r.jenkins.createProject(WorkflowJob.class, "p");
+        p.setDefinition(new CpsFlowDefinition("""
+                node {
+                  writeFile file: 'a/pom.xml', text: 'hello'
+                  writeFile file: 'b/pom.xml', text: 'world'
+                  def first = hashFiles glob: '**/pom.xml'
+                  echo "files=${first.files}"
+                  echo "same=${hashFiles(glob: '**/pom.xml').digest == first.digest}"
+                  writeFile file: 'b/pom.xml', text: 'changed'
+                  echo "changed=${hashFiles(glob: '**/pom.xml').digest != first.digest}"
+                  echo "md5=${hashFiles(file: 'a/pom.xml', algorithm: 'MD5').files['a/pom.xml']}"
+                  echo "absolute=${hashFiles(file: "${pwd()}/a/pom.xml", algorithm: 'MD5').files.values()}"
+                }
+                """, true));
+        WorkflowRun b = r.buildAndAssertSuccess(p);
+        r.assertLogContains(
+                "files=[a/pom.xml:2cf24dba5fb0a30e26e83b2ac5b9e29e1b161e5c1fa7425e73043362938b9824, "
+                        + "b/pom.xml:486ea46224d1bb4fb680f34f7c9ad96a8f24ec88be73ea8e5a6c65260e9cb8a7]",
+                b);
+        r.assertLogContains("same=true", b);
+        r.assertLogContains("changed=true", b);
+        r.assertLogContains("md5=5d41402abc4b2a76b9719d911017c592", b);
+        r.assertLogContains("absolute=[5d41402abc4b2a76b9719d911017c592]", b);
+    }
+
+    @Test
+    void badAlgorithm() throws Exception {
+        WorkflowJob p = r.jenkins.createProject(WorkflowJob.class, "p");
+        p.setDefinition(new CpsFlowDefinition("node { hashFiles file: 'x', algorithm: 'xxHash' }", true));
+        r.assertLogContains("Unsupported algorithm xxHash", r.buildAndAssertStatus(Result.FAILURE, p));
+    }
+}
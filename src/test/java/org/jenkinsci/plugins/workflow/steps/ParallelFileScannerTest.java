@@ -0,0 +1,137 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.jenkinsci.plugins.workflow.steps;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import hudson.Util;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.stream.Collectors;
+import org.apache.tools.ant.types.FileSet;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ParallelFileScannerTest {
+
+    @TempDir
+    private Path dir;
+
+    @BeforeEach
+    void createTree() throws Exception {
+        for (String f : new String[] {
+            "top.txt",
+            "top.log",
+            ".gitignore",
+            "a/one.txt",
+            "a/b/two.txt",
+            "a/b/c/three.log",
+            "a/.git/config",
+            "x/y/z/deep.txt",
+            "x/y/other~",
+            "target/classes/Main.class",
+            "target/reports/report.xml"
+        }) {
+            Path p = dir.resolve(f);
+            Files.createDirectories(p.getParent());
+            Files.writeString(p, f);
+        }
+        Files.createDirectories(dir.resolve("empty/dir"));
+    }
+
+    @Test
+    void sameAsDirectoryScanner() throws Exception {
+        String[][] cases = {
+            {"**", null},
+            {"**/*.txt", null},
+            {"*.txt", null},
+            {"a/", null},
+            {"a/**/*.log", null},
+            {"**/b/**", "**/c/**"},
+            {"x/*/z/*", null},
+            {"target/**/*.class, target/reports/", null},
+            {"**", "target/, **/*.log"},
+            {"a\\b\\", null},
+            {"nonexistent/", null},
+        };
+        for (String[] c : cases) {
+            assertEquals(ant(c[0], c[1]), parallel(c[0], c[1]), c[0] + " excluding " + c[1]);
+        }
+    }
+
+    @Test
+    void defaultExcludesOptional() throws Exception {
+        Set<String> files = new ConcurrentSkipListSet<>();
+        new ParallelFileScanner("**", null, false).scan(dir.toFile(), files::add);
+        assertTrue(files.contains("a/.git/config"));
+        assertTrue(files.contains(".gitignore"));
+    }
+
+    @Test
+    void symlinkCycle() throws Exception {
+        try {
+            Files.createSymbolicLink(dir.resolve("a/b/loop"), dir.resolve("a"));
+        } catch (UnsupportedOperationException | IOException x) {
+            return; // e.g. Windows without privileges
+        }
+        Set<String> files = parallel("**/*.txt", null);
+        assertTrue(files.contains("a/b/two.txt"));
+        assertFalse(files.contains("a/b/loop/one.txt"));
+    }
+
+    @Test
+    void matchesWithoutFilesystem() throws Exception {
+        for (String[] c : new String[][] {{"**/*.txt", null}, {"a/", "**/c/**"}, {"x/*/z/*", null}}) {
+            ParallelFileScanner scanner = new ParallelFileScanner(c[0], c[1], true);
+            Set<String> matched = ant("**", null).stream()
+                    .filter(scanner::matches)
+                    .collect(Collectors.toCollection(TreeSet::new));
+            assertEquals(ant(c[0], c[1]), matched, c[0] + " excluding " + c[1]);
+        }
+    }
+
+    private Set<String> ant(String includes, String excludes) {
+        FileSet fs = Util.createFileSet(dir.toFile(), includes, excludes);
+        return Arrays.stream(fs.getDirectoryScanner().getIncludedFiles())
+                .map(f -> f.replace(File.separatorChar, '/'))
+                .collect(Collectors.toCollection(TreeSet::new));
+    }
+
+    private Set<String> parallel(String includes, String excludes) throws Exception {
+        Set<String> files = new ConcurrentSkipListSet<>();
+        int count = new ParallelFileScanner(includes, excludes, true).scan(dir.toFile(), files::add);
+        assertEquals(files.size(), count);
+        return new TreeSet<>(files);
+    }
+}
@@ -28,11 +28,19 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.not;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
 
+import hudson.FilePath;
+import hudson.Functions;
+import hudson.model.Result;
+import hudson.model.TaskListener;
 import hudson.model.TopLevelItem;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
 import java.util.List;
+import java.util.Random;
 import org.apache.commons.io.IOUtils;
 import org.hamcrest.Matchers;
 import org.jenkinsci.plugins.workflow.actions.ArgumentsAction;
@@ -165,6 +173,305 @@ class ReadWriteFileStepTest {
         r.assertBuildStatusSuccess(r.waitForCompletion(b));
     }
 
+    @Test
+    void base64() throws Exception {
+        WorkflowJob p = r.jenkins.createProject(WorkflowJob.class, "p");
+        FilePath ws = r.jenkins.getWorkspaceFor(p);
+        Random random = new Random(42);
+        // sizes spanning several read buffers, covering each remainder modulo 3
+        int[] sizes = {0, 1, 2, 8192, 100_000, 100_001};
+        byte[][] data = new byte[sizes.length][];
+        for (int i = 0; i < sizes.length; i++) {
+            data[i] = new byte[sizes[i]];
+            random.nextBytes(data[i]);
+            try (OutputStream stream = ws.child("in" + i).write()) {
+                stream.write(data[i]);
+            }
+        }
+        p.setDefinition(new CpsFlowDefinition(
+                """
+                node {
+                  for (int i = 0; i < %d; i++) {
+                    def text = readFile file: "in$i", encoding: 'Base64'
+                    writeFile file: "text$i", text: text
+                    writeFile file: "out$i", text: text, encoding: 'Base64'
+                  }
+                }
+                """
+                        .formatted(sizes.length),
+                true));
+        r.buildAndAssertSuccess(p);
+        for (int i = 0; i < sizes.length; i++) {
+            String text = new String(getBytes(p, "text" + i), StandardCharsets.US_ASCII);
+            assertEquals((sizes[i] + 2) / 3 * 4, text.length());
+            assertEquals(Base64.getEncoder().encodeToString(data[i]), text);
+            assertThat(getBytes(p, "out" + i), equalTo(data[i]));
+        }
+    }
+
+    @Test
+    void readPart() throws Exception {
+        WorkflowJob p = r.jenkins.createProject(WorkflowJob.class, "p");
+        p.setDefinition(new CpsFlowDefinition("""
+                node {
+                  writeFile file: 'f', text: 'one\\ntwo\\nthree\\nfour\\n'
+                  echo "head=[${readFile file: 'f', head: 2}]"
+                  echo "tail=[${readFile file: 'f', tail: 2}]"
+                  echo "lines=[${readFile file: 'f', lines: '2-3'}]"
+                  echo "open=[${readFile file: 'f', lines: '4-'}]"
+                  echo "bytes=[${readFile file: 'f', offset: 4, length: 3}]"
+                  echo "base64=[${readFile file: 'f', offset: 4, length: 3, encoding: 'Base64'}]"
+                  writeFile file: 'g', text: 'a\\nb\\nc', encoding: 'UTF-16'
+                  echo "utf16=[${readFile file: 'g', tail: 2, encoding: 'UTF-16'}]"
+                }
+                """, true));
+        WorkflowRun b = r.buildAndAssertSuccess(p);
+        r.assertLogContains("head=[one\ntwo\n]", b);
+        r.assertLogContains("tail=[three\nfour\n]", b);
+        r.assertLogContains("lines=[two\nthree\n]", b);
+        r.assertLogContains("open=[four\n]", b);
+        r.assertLogContains("bytes=[two]", b);
+        r.assertLogContains("base64=[dHdv]", b);
+        r.assertLogContains("utf16=[b\nc]", b);
+        p.setDefinition(new CpsFlowDefinition(
+                "node {writeFile file: 'f', text: ''; readFile file: 'f', head: 1, tail: 1}", true));
+        r.assertLogContains("Specify only one of", r.buildAndAssertStatus(Result.FAILURE, p));
+        p.setDefinition(new CpsFlowDefinition(
+                "node {writeFile file: 'f', text: 'x'; readFile file: 'f', lines: '0-5'}", true));
+        r.assertLogContains(
+                "Expected a line range like 10-20, not 0-5", r.buildAndAssertStatus(Result.FAILURE, p));
+        p.setDefinition(new CpsFlowDefinition(
+                "node {writeFile file: 'f', text: 'x'; readFile file: 'f', lines: '5-2'}", true));
+        r.assertLogContains(
+                "Expected a line range like 10-20, not 5-2", r.buildAndAssertStatus(Result.FAILURE, p));
+    }
+
+    @Test
+    void cache() throws Exception {
+        WorkflowJob p = r.jenkins.createProject(WorkflowJob.class, "p");
+        p.setDefinition(new CpsFlowDefinition("""
+                node {
+                  writeFile file: 'version.properties', text: 'version=1'
+                  for (int i = 0; i < 3; i++) {
+                    echo "read ${readFile file: 'version.properties', cache: true}"
+                  }
+                  echo "part ${readFile file: 'version.properties', cache: true, head: 1}"
+                  writeFile file: 'version.properties', text: 'version=10'
+                  echo "read ${readFile file: 'version.properties', cache: true}"
+                }
+                """, true));
+        WorkflowRun b = r.buildAndAssertSuccess(p);
+        r.assertLogContains("read version=1\n", b);
+        r.assertLogContains("read version=10", b);
+        r.assertLogContains("readFile cache: 2 hit(s), 3 miss(es)", b);
+        assertEquals(0, ReadFileCache.size());
+    }
+
+    @Test
+    void readFiles() throws Exception {
+        WorkflowJob p = r.jenkins.createProject(WorkflowJob.class, "p");
+        p.setDefinition(new CpsFlowDefinition("""
+                node {
+                  writeFile file: 'conf/b.json', text: '{"b":2}'
+                  writeFile file: 'conf/a.json', text: '{"a":1}'
+                  writeFile file: 'conf/c.txt', text: 'ignored'
+                  echo "all=${readFiles 'conf/*.json'}"
+                  readFiles glob: 'conf/*', maxBytes: 10
+                }
+                """, true));
+        WorkflowRun b = r.buildAndAssertStatus(Result.FAILURE, p);
+        r.assertLogContains("all=[conf/a.json:{\"a\":1}, conf/b.json:{\"b\":2}]", b);
+        r.assertLogContains("exceed the limit of 10 bytes", b);
+    }
+
+    @Test
+    void format() throws Exception {
+        WorkflowJob p = r.jenkins.createProject(WorkflowJob.class, "p");
+        p.setDefinition(new CpsFlowDefinition("""
+                node {
+                  writeFile file: 'p.json', text: '{"name": "x", "deps": [{"v": 1}, {"v": null}], "ok": true}'
+                  def json = readFile file: 'p.json', format: 'json'
+                  echo "name=${json.name} v=${json.deps[0].v} ok=${json.ok} null=${json.deps[1].v}"
+                  echo "selected=${readFile file: 'p.json', format: 'json', select: 'deps.0.v'}"
+                  echo "missing=${readFile file: 'p.json', format: 'json', select: 'deps.5.v'}"
+                  writeFile file: 'v.properties', text: 'version=1.2\\nbuild.number=7\\n'
+                  def props = readFile file: 'v.properties', format: 'properties'
+                  echo "props=${props}"
+                  echo "key=${readFile file: 'v.properties', format: 'properties', select: 'build.number'}"
+                }
+                """, true));
+        WorkflowRun b = r.buildAndAssertSuccess(p);
+        r.assertLogContains("name=x v=1 ok=true null=null", b);
+        r.assertLogContains("selected=1", b);
+        r.assertLogContains("missing=null", b);
+        r.assertLogContains("props=[build.number:7, version:1.2]", b);
+        r.assertLogContains("key=7", b);
+    }
+
+    @Test
+    void formatJsonStrict() throws Exception {
+        WorkflowJob p = r.jenkins.createProject(WorkflowJob.class, "p");
+        p.setDefinition(new CpsFlowDefinition("""
+                node {
+                  writeFile file: 'p.json', text: '{"list": "[1]", "obj": "{}", "nil": "null", "big": 12345678901}'
+                  def json = readFile file: 'p.json', format: 'json'
+                  for (key in ['list', 'obj', 'nil']) {
+                    echo "${key}=<${json[key]}> string=${json[key] instanceof String}"
+                  }
+                  echo "big=${json.big}"
+                }
+                """, true));
+        WorkflowRun b = r.buildAndAssertSuccess(p);
+        r.assertLogContains("list=<[1]> string=true", b);
+        r.assertLogContains("obj=<{}> string=true", b);
+        r.assertLogContains("nil=<null> string=true", b);
+        r.assertLogContains("big=12345678901", b);
+        p.setDefinition(new CpsFlowDefinition(
+                "node {writeFile file: 'p.json', text: '{\"a\": 1} trailing'; readFile file: 'p.json', format: 'json'}",
+                true));
+        r.assertLogContains(
+                "Unexpected text after the end of the document", r.buildAndAssertStatus(Result.FAILURE, p));
+        FilePath ws = r.jenkins.getWorkspaceFor(p);
+        ws.child("ok.json").write("{\"a\": \"\\u0041\\u0062\"}", "UTF-8");
+        ws.child("signed.json").write("{\"a\": \"\\u+041\"}", "UTF-8");
+        p.setDefinition(new CpsFlowDefinition(
+                "node {echo \"a=${readFile(file: 'ok.json', format: 'json').a}\"; "
+                        + "readFile file: 'signed.json', format: 'json'}",
+                true));
+        b = r.buildAndAssertStatus(Result.FAILURE, p);
+        r.assertLogContains("a=Ab", b);
+        r.assertLogContains("Invalid unicode escape", b);
+    }
+
+    @Test
+    void ifChangedAndAtomic() throws Exception {
+        WorkflowJob p = r.jenkins.createProject(WorkflowJob.class, "p");
+        p.setDefinition(new CpsFlowDefinition("""
+                node {
+                  writeFile file: 'f', text: 'same', atomic: true
+                  semaphore 'written'
+                  writeFile file: 'f', text: 'same', ifChanged: true
+                  semaphore 'unchanged'
+                  writeFile file: 'f', text: 'different', ifChanged: true, atomic: true
+                }
+                """, true));
+        WorkflowRun b = p.scheduleBuild2(0).waitForStart();
+        SemaphoreStep.waitForStart("written/1", b);
+        FilePath f = r.jenkins.getWorkspaceFor(p).child("f");
+        assertEquals("same", f.readToString());
+        f.touch(1_000_000_000_000L);
+        SemaphoreStep.success("written/1", null);
+        SemaphoreStep.waitForStart("unchanged/1", b);
+        assertEquals(1_000_000_000_000L, f.lastModified());
+        SemaphoreStep.success("unchanged/1", null);
+        r.assertBuildStatusSuccess(r.waitForCompletion(b));
+        assertEquals("different", f.readToString());
+        assertThat(r.jenkins.getWorkspaceFor(p).list(), Matchers.hasSize(1));
+    }
+
+    @Test
+    void atomicKeepsModeAndSymlinks() throws Exception {
+        assumeFalse(Functions.isWindows());
+        WorkflowJob p = r.jenkins.createProject(WorkflowJob.class, "p");
+        FilePath ws = r.jenkins.getWorkspaceFor(p);
+        FilePath script = ws.child("script.sh");
+        script.write("old", null);
+        script.chmod(0750);
+        ws.child("link").symlinkTo("script.sh", TaskListener.NULL);
+        p.setDefinition(new CpsFlowDefinition("node {writeFile file: 'link', text: 'new', atomic: true}", true));
+        r.buildAndAssertSuccess(p);
+        assertEquals("script.sh", ws.child("link").readLink());
+        assertEquals("new", script.readToString());
+        assertEquals(0750, script.mode());
+        ws.child("dangling").symlinkTo("missing", TaskListener.NULL);
+        p.setDefinition(new CpsFlowDefinition("node {writeFile file: 'dangling', text: 'new', atomic: true}", true));
+        r.assertLogContains("a symbolic link to a missing file", r.buildAndAssertStatus(Result.FAILURE, p));
+    }
+
+    @Test
+    void append() throws Exception {
+        WorkflowJob p = r.jenkins.createProject(WorkflowJob.class, "p");
+        p.setDefinition(new CpsFlowDefinition("""
+                node {
+                  writeFile file: 'log', text: 'a'
+                  writeFile file: 'log', text: 'b', append: true
+                  writeFile file: 'dir/new', text: 'c', append: true
+                  withFileWriter('report') {
+                    for (int i = 0; i < 3; i++) {
+                      writeFile file: 'report', text: "${i}", append: true
+                    }
+                    writeFile file: 'log', text: 'd', append: true
+                  }
+                  echo "log=${readFile 'log'} new=${readFile 'dir/new'} report=${readFile 'report'}"
+                }
+                """, true));
+        WorkflowRun b = r.buildAndAssertSuccess(p);
+        r.assertLogContains("log=abd new=c report=012", b);
+    }
+
+    @Test
+    void fileWriterOrdering() throws Exception {
+        WorkflowJob p = r.jenkins.createProject(WorkflowJob.class, "p");
+        p.setDefinition(new CpsFlowDefinition("""
+                node {
+                  withFileWriter('f') {
+                    writeFile file: 'f', text: 'a', append: true
+                    writeFile file: 'f', text: 'new'
+                  }
+                  withFileWriter('g') {
+                    writeFile file: 'g', text: 'a', append: true
+                    writeFiles files: [g: 'replaced']
+                  }
+                  withFileWriter('outer') {
+                    writeFile file: 'outer', text: '1', append: true
+                    withFileWriter('inner') {
+                      writeFile file: 'outer', text: '2', append: true
+                      writeFile file: 'inner', text: 'x', append: true
+                    }
+                    writeFile file: 'outer', text: '3', append: true
+                    withFileWriter(file: 'outer', append: true) {
+                      writeFile file: 'outer', text: '4', append: true
+                    }
+                  }
+                  echo "f=${readFile 'f'} g=${readFile 'g'} outer=${readFile 'outer'} inner=${readFile 'inner'}"
+                }
+                """, true));
+        r.assertLogContains("f=new g=replaced outer=1234 inner=x", r.buildAndAssertSuccess(p));
+    }
+
+    @Test
+    void compressedToAgent() throws Exception {
+        r.createSlave("remote", null, null);
+        WorkflowJob p = r.jenkins.createProject(WorkflowJob.class, "p");
+        p.setDefinition(new CpsFlowDefinition("""
+                node('remote') {
+                  def text = 'x' * 100000 + '\u20ac'
+                  writeFile file: 'big', text: text, encoding: 'UTF-8'
+                  writeFile file: 'big64', text: readFile(file: 'big', encoding: 'Base64'), encoding: 'Base64'
+                  echo "same=${readFile(file: 'big64', encoding: 'UTF-8') == text}"
+                }
+                """, true));
+        r.assertLogContains("same=true", r.buildAndAssertSuccess(p));
+    }
+
+    @Test
+    void writeFiles() throws Exception {
+        WorkflowJob p = r.jenkins.createProject(WorkflowJob.class, "p");
+        p.setDefinition(new CpsFlowDefinition("""
+                node {
+                  def n = 2
+                  writeFiles files: ['a/one': 'first', 'a/b/two': "second ${n}", 'three': 'x']
+                  echo "${readFile 'a/one'}/${readFile 'a/b/two'}/${readFile 'three'}"
+                }
+                """, true));
+        WorkflowRun b = r.buildAndAssertSuccess(p);
+        r.assertLogContains("first/second 2/x", b);
+        r.assertLogContains("Wrote 3 file(s) (", b);
+        List<FlowNode> nodes =
+                new DepthFirstScanner().filteredNodes(b.getExecution(), new NodeStepTypePredicate("writeFiles"));
+        assertEquals("3 file(s)", ArgumentsAction.getStepArgumentsAsString(nodes.get(0)));
+    }
+
     private byte[] getBytes(TopLevelItem item, String fileName) throws Exception {
         try (InputStream stream =
                 r.jenkins.getWorkspaceFor(item).child(fileName).read()) {
@@ -27,8 +27,20 @@ package org.jenkinsci.plugins.workflow.support.steps.stash;
 import static org.awaitility.Awaitility.await;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
 
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.ExtensionList;
+import hudson.FilePath;
+import hudson.Functions;
+import hudson.model.Result;
+import hudson.model.Run;
+import hudson.util.StreamTaskListener;
+import java.io.ByteArrayInputStream;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import org.hamcrest.Matchers;
 import org.jenkinsci.plugins.workflow.actions.ArgumentsAction;
@@ -39,12 +51,14 @@ import org.jenkinsci.plugins.workflow.graphanalysis.DepthFirstScanner;
 import org.jenkinsci.plugins.workflow.graphanalysis.NodeStepTypePredicate;
 import org.jenkinsci.plugins.workflow.job.WorkflowJob;
 import org.jenkinsci.plugins.workflow.job.WorkflowRun;
+import org.jenkinsci.plugins.workflow.steps.TransferStatisticsAction;
 import org.jenkinsci.plugins.workflow.test.steps.SemaphoreStep;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.RegisterExtension;
 import org.jvnet.hudson.test.Issue;
 import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.TestExtension;
 import org.jvnet.hudson.test.junit.jupiter.BuildWatcherExtension;
 import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
 
@@ -93,6 +107,42 @@ class StashTest {
                 .until(() -> StashManager.stashesOf(b).isEmpty());
     }
 
+    @Test
+    void statistics() throws Exception {
+        WorkflowJob p = r.jenkins.createProject(WorkflowJob.class, "p");
+        p.setDefinition(new CpsFlowDefinition("""
+                        node {
+                          writeFile file: 'fname', text: 'whatever'
+                          writeFile file: 'other', text: 'more'
+                          stash 'files'
+                          dir('elsewhere') {unstash 'files'}
+                        }""", true));
+        WorkflowRun b1 = r.buildAndAssertSuccess(p);
+        Map<String, Long> stash = metrics(b1, "stash");
+        assertThat(stash.keySet(), Matchers.not(Matchers.hasItem("files")));
+        assertThat(stash.get("compressedBytes"), Matchers.greaterThan(0L));
+        assertEquals(stash.get("compressedBytes"), metrics(b1, "unstash").get("compressedBytes"));
+        StashStatistics.SCAN = true;
+        WorkflowRun b2;
+        try {
+            b2 = r.buildAndAssertSuccess(p);
+        } finally {
+            StashStatistics.SCAN = false;
+        }
+        stash = metrics(b2, "stash");
+        assertEquals(2L, stash.get("files"));
+        assertEquals(12L, stash.get("bytes"));
+        assertThat(StashStatistics.get().getStashes(), Matchers.greaterThanOrEqualTo(2L));
+    }
+
+    private static Map<String, Long> metrics(WorkflowRun b, String function) {
+        return new DepthFirstScanner()
+                .filteredNodes(b.getExecution(), new NodeStepTypePredicate(function))
+                .get(0)
+                .getPersistentAction(TransferStatisticsAction.class)
+                .getMetrics();
+    }
+
     @Issue("JENKINS-31086")
     @Test
     void testDefaultExcludes() throws Exception {
@@ -140,4 +190,125 @@ class StashTest {
         assertThat(coreStepNodes, Matchers.hasSize(1));
         assertEquals("whatever", ArgumentsAction.getStepArgumentsAsString(coreStepNodes.get(0)));
     }
+
+    @Test
+    void delta() throws Exception {
+        WorkflowJob p = r.jenkins.createProject(WorkflowJob.class, "p");
+        p.setDefinition(new CpsFlowDefinition("""
+                        node {
+                          writeFile file: 'src/same', text: 'same'
+                          writeFile file: 'src/changed', text: 'new'
+                          writeFile file: 'src/sub/added', text: 'added'
+                          dir('src') {stash 'delta'}
+                          writeFile file: 'dest/same', text: 'same'
+                          writeFile file: 'dest/changed', text: 'old'
+                          writeFile file: 'dest/extra', text: 'extra'
+                          dir('dest') {
+                            unstash name: 'delta', delta: true
+                            echo "changed: ${readFile 'changed'} added: ${readFile 'sub/added'} extra: ${readFile 'extra'}"
+                          }
+                          dir('src') {stash name: 'delta', excludes: 'sub/'}
+                          dir('dest') {
+                            unstash name: 'delta', delta: true
+                            echo "kept: ${fileExists 'sub/added'}"
+                            unstash name: 'delta', delta: true, deleteStale: true
+                            echo "added: ${fileExists 'sub/added'} extra: ${fileExists 'extra'}"
+                          }
+                          writeFile file: 'src/clash', text: 'file'
+                          writeFile file: 'dest/clash/inner', text: 'directory'
+                          dir('src') {stash 'delta'}
+                          dir('dest') {unstash name: 'delta', delta: true}
+                        }""", true));
+        WorkflowRun b = r.assertBuildStatus(Result.FAILURE, p.scheduleBuild2(0));
+        r.assertLogContains("Updated 2 file(s) from stash delta, left 1 identical file(s)", b);
+        r.assertLogContains("changed: new added: added extra: extra", b);
+        r.assertLogContains("kept: true", b);
+        r.assertLogContains("deleted 1 file(s) no longer stashed", b);
+        r.assertLogContains("added: false extra: true", b);
+        r.assertLogContains("Cannot restore stash delta over existing paths of a different type: clash", b);
+    }
+
+    @Test
+    void unstashAll() throws Exception {
+        WorkflowJob p = r.jenkins.createProject(WorkflowJob.class, "p");
+        p.setDefinition(new CpsFlowDefinition("""
+                        node {
+                          writeFile file: 'a/common', text: 'same'
+                          writeFile file: 'a/one', text: '1'
+                          writeFile file: 'b/common', text: 'same'
+                          writeFile file: 'b/sub/two', text: '2'
+                          writeFile file: 'c/one', text: 'other'
+                          writeFile file: 'c/common/inner', text: 'directory'
+                          dir('a') {stash 'a'}
+                          dir('b') {stash 'b'}
+                          dir('c') {stash 'c'}
+                          dir('dest') {
+                            unstashAll names: ['a', 'b']
+                            echo "one: ${readFile 'one'} two: ${readFile 'sub/two'}"
+                          }
+                          dir('conflict') {
+                            unstashAll(['a', 'c'])
+                          }
+                        }""", true));
+        WorkflowRun b = r.assertBuildStatus(Result.FAILURE, p.scheduleBuild2(0));
+        r.assertLogContains("Updated 3 file(s) from stashes a, b", b);
+        r.assertLogContains("one: 1 two: 2", b);
+        r.assertLogContains("Stashes a, c contain different versions of the same files: common, one", b);
+        List<FlowNode> nodes =
+                new DepthFirstScanner().filteredNodes(b.getExecution(), new NodeStepTypePredicate("unstashAll"));
+        assertThat(nodes, Matchers.hasSize(2));
+        assertEquals("a, c", ArgumentsAction.getStepArgumentsAsString(nodes.get(0)));
+    }
+
+    @Test
+    void unstashAllSymlinks() throws Exception {
+        assumeFalse(Functions.isWindows());
+        WorkflowJob p = r.jenkins.createProject(WorkflowJob.class, "p");
+        FilePath ws = r.jenkins.getWorkspaceFor(p);
+        ws.child("a/target").write("content", null);
+        ws.child("a/link").symlinkTo("target", StreamTaskListener.fromStdout());
+        ws.child("b/link").symlinkTo("target", StreamTaskListener.fromStdout());
+        ws.child("c/link").symlinkTo("elsewhere", StreamTaskListener.fromStdout());
+        p.setDefinition(new CpsFlowDefinition("""
+                        node {
+                          dir('a') {stash 'a'}
+                          dir('b') {stash 'b'}
+                          dir('c') {stash 'c'}
+                          dir('dest') {
+                            unstashAll(['a', 'b'])
+                            echo "link: ${readFile 'link'}"
+                          }
+                          dir('conflict') {
+                            unstashAll(['a', 'c'])
+                          }
+                        }""", true));
+        WorkflowRun b = r.assertBuildStatus(Result.FAILURE, p.scheduleBuild2(0));
+        r.assertLogContains("Updated 2 file(s) from stashes a, b", b);
+        r.assertLogContains("link: content", b);
+        r.assertLogContains("Stashes a, c contain different versions of the same files: link", b);
+    }
+
+    @Test
+    void storageLimits() throws Exception {
+        WorkflowJob p = r.jenkins.createProject(WorkflowJob.class, "p");
+        byte[] data = new byte[1536 * 1024];
+        new Random().nextBytes(data);
+        r.jenkins.getWorkspaceFor(p).child("big").copyFrom(new ByteArrayInputStream(data));
+        p.setDefinition(new CpsFlowDefinition("node {stash 'big'}", true));
+        WorkflowRun b1 = r.buildAndAssertSuccess(p);
+        WorkflowRun b2 = r.buildAndAssertSuccess(p);
+        StashStorageConfiguration.get().setMaxJobSize(2);
+        ExtensionList.lookupSingleton(StashStorageCleanup.class).execute(StreamTaskListener.fromStdout());
+        assertEquals(Set.of(), StashManager.stashesOf(b1).keySet());
+        assertEquals(Set.of("big"), StashManager.stashesOf(b2).keySet());
+        assertEquals(Set.of("p"), StashStorageConfiguration.get().getUsage().keySet());
+    }
+
+    @TestExtension("storageLimits")
+    public static class KeepStashes extends StashManager.StashBehavior {
+        @Override
+        public boolean shouldClearAll(@NonNull Run<?, ?> build) {
+            return false;
+        }
+    }
 }